@@ -0,0 +1,12 @@
+package com.kjr.rpf.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables @Async so that startup and maintenance jobs run off the main thread
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,79 @@
+package com.kjr.rpf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.conversion")
+public class ConversionConfig {
+    private int poolSize = 0;
+    private int queueCapacity = 50;
+    private boolean recoverOnStartup = true;
+    private long maxTextLength = 8_000_000;
+    private String tikaConfig = "classpath:tika-config.xml";
+    private boolean warmUp = true;
+    private int warmUpIterations = 3;
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isRecoverOnStartup() {
+        return recoverOnStartup;
+    }
+
+    public void setRecoverOnStartup(boolean recoverOnStartup) {
+        this.recoverOnStartup = recoverOnStartup;
+    }
+
+    public long getMaxTextLength() {
+        return maxTextLength;
+    }
+
+    public void setMaxTextLength(long maxTextLength) {
+        this.maxTextLength = maxTextLength;
+    }
+
+    public String getTikaConfig() {
+        return tikaConfig;
+    }
+
+    public void setTikaConfig(String tikaConfig) {
+        this.tikaConfig = tikaConfig;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public int getWarmUpIterations() {
+        return warmUpIterations;
+    }
+
+    public void setWarmUpIterations(int warmUpIterations) {
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    /**
+     * Number of conversion threads, one per CPU unless configured
+     */
+    public int resolvePoolSize() {
+        return poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    }
+}
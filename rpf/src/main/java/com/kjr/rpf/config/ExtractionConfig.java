@@ -0,0 +1,36 @@
+package com.kjr.rpf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.extraction")
+public class ExtractionConfig {
+    private String skillsDictionary = "classpath:extraction/skills.txt";
+    private boolean backfillOnStartup = true;
+    private String defaultCountryCode = "1";
+
+    public String getSkillsDictionary() {
+        return skillsDictionary;
+    }
+
+    public void setSkillsDictionary(String skillsDictionary) {
+        this.skillsDictionary = skillsDictionary;
+    }
+
+    public boolean isBackfillOnStartup() {
+        return backfillOnStartup;
+    }
+
+    public void setBackfillOnStartup(boolean backfillOnStartup) {
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    public String getDefaultCountryCode() {
+        return defaultCountryCode;
+    }
+
+    public void setDefaultCountryCode(String defaultCountryCode) {
+        this.defaultCountryCode = defaultCountryCode;
+    }
+}
@@ -0,0 +1,54 @@
+package com.kjr.rpf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.html")
+public class HtmlCacheConfig {
+    private boolean enabled = true;
+    private long maxSizeMb = 256;
+    private boolean warmUp = true;
+    private int warmUpCount = 200;
+    private String hotKeysFile = "data/html-cache-hot-keys.txt";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxSizeMb() {
+        return maxSizeMb;
+    }
+
+    public void setMaxSizeMb(long maxSizeMb) {
+        this.maxSizeMb = maxSizeMb;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public int getWarmUpCount() {
+        return warmUpCount;
+    }
+
+    public void setWarmUpCount(int warmUpCount) {
+        this.warmUpCount = warmUpCount;
+    }
+
+    public String getHotKeysFile() {
+        return hotKeysFile;
+    }
+
+    public void setHotKeysFile(String hotKeysFile) {
+        this.hotKeysFile = hotKeysFile;
+    }
+}
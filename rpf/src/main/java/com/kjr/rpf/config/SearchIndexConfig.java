@@ -0,0 +1,100 @@
+package com.kjr.rpf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.search.index")
+public class SearchIndexConfig {
+    private String path = "data/index";
+    private int maxHits = 1000;
+    private boolean rebuildIfEmpty = true;
+    private int defaultTopK = 100;
+    private float recencyWeight = 0.5f;
+    private int recencyPivotDays = 180;
+    private float criteriaBoost = 1.0f;
+    private long refreshIntervalMs = 1000;
+    private long commitIntervalMs = 60000;
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getMaxHits() {
+        return maxHits;
+    }
+
+    public void setMaxHits(int maxHits) {
+        this.maxHits = maxHits;
+    }
+
+    public boolean isRebuildIfEmpty() {
+        return rebuildIfEmpty;
+    }
+
+    public void setRebuildIfEmpty(boolean rebuildIfEmpty) {
+        this.rebuildIfEmpty = rebuildIfEmpty;
+    }
+
+    public int getDefaultTopK() {
+        return defaultTopK;
+    }
+
+    public void setDefaultTopK(int defaultTopK) {
+        this.defaultTopK = defaultTopK;
+    }
+
+    public float getRecencyWeight() {
+        return recencyWeight;
+    }
+
+    public void setRecencyWeight(float recencyWeight) {
+        this.recencyWeight = recencyWeight;
+    }
+
+    public int getRecencyPivotDays() {
+        return recencyPivotDays;
+    }
+
+    public void setRecencyPivotDays(int recencyPivotDays) {
+        this.recencyPivotDays = recencyPivotDays;
+    }
+
+    public float getCriteriaBoost() {
+        return criteriaBoost;
+    }
+
+    public void setCriteriaBoost(float criteriaBoost) {
+        this.criteriaBoost = criteriaBoost;
+    }
+
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    public long getCommitIntervalMs() {
+        return commitIntervalMs;
+    }
+
+    public void setCommitIntervalMs(long commitIntervalMs) {
+        this.commitIntervalMs = commitIntervalMs;
+    }
+
+    /**
+     * Number of ranked hits to materialize for a keyword search, capped at maxHits
+     */
+    public int resolveTopK(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultTopK, maxHits);
+        }
+        return Math.min(requested, maxHits);
+    }
+}
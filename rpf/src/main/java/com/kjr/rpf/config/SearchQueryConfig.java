@@ -0,0 +1,27 @@
+package com.kjr.rpf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.search.query")
+public class SearchQueryConfig {
+    private long maxTimeMs = 2000;
+    private int maxTermLength = 200;
+
+    public long getMaxTimeMs() {
+        return maxTimeMs;
+    }
+
+    public void setMaxTimeMs(long maxTimeMs) {
+        this.maxTimeMs = maxTimeMs;
+    }
+
+    public int getMaxTermLength() {
+        return maxTermLength;
+    }
+
+    public void setMaxTermLength(int maxTermLength) {
+        this.maxTermLength = maxTermLength;
+    }
+}
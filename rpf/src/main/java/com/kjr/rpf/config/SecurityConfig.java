@@ -22,7 +22,7 @@ public class SecurityConfig {
         http
                 .authorizeHttpRequests((requests) -> requests
                         .requestMatchers("/resumes/upload", "/resumes/list", "/resumes/view/**").permitAll()
-                        .requestMatchers("/resumes/download/**", "/resumes/print/**", "/resumes/unmasked/**")
+                        .requestMatchers("/resumes/download/**", "/resumes/print/**", "/resumes/unmasked/**", "/admin/**")
                         .authenticated()
                         .anyRequest().permitAll()
                 )
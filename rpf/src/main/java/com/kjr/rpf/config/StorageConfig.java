@@ -0,0 +1,45 @@
+package com.kjr.rpf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.storage")
+public class StorageConfig {
+    private String type = "gridfs";
+    private String localPath = "data/blobs";
+    private boolean migrateOnStartup = false;
+    private boolean migrateHtmlOnStartup = true;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getLocalPath() {
+        return localPath;
+    }
+
+    public void setLocalPath(String localPath) {
+        this.localPath = localPath;
+    }
+
+    public boolean isMigrateOnStartup() {
+        return migrateOnStartup;
+    }
+
+    public void setMigrateOnStartup(boolean migrateOnStartup) {
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    public boolean isMigrateHtmlOnStartup() {
+        return migrateHtmlOnStartup;
+    }
+
+    public void setMigrateHtmlOnStartup(boolean migrateHtmlOnStartup) {
+        this.migrateHtmlOnStartup = migrateHtmlOnStartup;
+    }
+}
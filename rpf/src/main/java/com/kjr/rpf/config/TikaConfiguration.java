@@ -0,0 +1,40 @@
+package com.kjr.rpf.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.config.TikaConfig;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.Parser;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Shared Tika parser infrastructure. Detectors and parsers are loaded once from
+ * tika-config.xml; the resulting parser is thread-safe and used by every conversion.
+ */
+@Configuration
+@Slf4j
+public class TikaConfiguration {
+
+    @Bean
+    public TikaConfig tikaConfig(ConversionConfig conversionConfig, ResourceLoader resourceLoader)
+            throws IOException, TikaException, SAXException {
+        Resource resource = resourceLoader.getResource(conversionConfig.getTikaConfig());
+        try (InputStream in = resource.getInputStream()) {
+            TikaConfig tikaConfig = new TikaConfig(in);
+            log.info("Loaded Tika configuration from {}", resource);
+            return tikaConfig;
+        }
+    }
+
+    @Bean
+    public Parser documentParser(TikaConfig tikaConfig) {
+        return new AutoDetectParser(tikaConfig);
+    }
+}
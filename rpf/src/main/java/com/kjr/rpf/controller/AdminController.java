@@ -0,0 +1,147 @@
+package com.kjr.rpf.controller;
+
+import com.kjr.rpf.service.ResumeService;
+import com.kjr.rpf.service.cache.ResumeHtmlCache;
+import com.kjr.rpf.service.extraction.ExtractionBackfillJob;
+import com.kjr.rpf.service.masking.RemaskJob;
+import com.kjr.rpf.service.search.SearchIndexRebuildJob;
+import com.kjr.rpf.service.storage.BlobMigrationJob;
+import com.kjr.rpf.service.storage.HtmlStorageMigrationJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Maintenance endpoints (requires authentication)
+ */
+@Controller
+@RequestMapping("/admin")
+@Slf4j
+public class AdminController {
+
+    private final BlobMigrationJob blobMigrationJob;
+    private final HtmlStorageMigrationJob htmlStorageMigrationJob;
+    private final SearchIndexRebuildJob searchIndexRebuildJob;
+    private final RemaskJob remaskJob;
+    private final ExtractionBackfillJob extractionBackfillJob;
+    private final ResumeService resumeService;
+    private final ResumeHtmlCache htmlCache;
+
+    @Autowired
+    public AdminController(BlobMigrationJob blobMigrationJob, HtmlStorageMigrationJob htmlStorageMigrationJob,
+                           SearchIndexRebuildJob searchIndexRebuildJob,
+                           RemaskJob remaskJob, ExtractionBackfillJob extractionBackfillJob,
+                           ResumeService resumeService, ResumeHtmlCache htmlCache) {
+        this.blobMigrationJob = blobMigrationJob;
+        this.htmlStorageMigrationJob = htmlStorageMigrationJob;
+        this.searchIndexRebuildJob = searchIndexRebuildJob;
+        this.remaskJob = remaskJob;
+        this.extractionBackfillJob = extractionBackfillJob;
+        this.resumeService = resumeService;
+        this.htmlCache = htmlCache;
+    }
+
+    /**
+     * Move embedded original files of existing resumes into the blob store
+     */
+    @PostMapping("/migrations/blob-store")
+    @ResponseBody
+    public ResponseEntity<?> migrateBlobs() {
+        int migrated = blobMigrationJob.migrate();
+        if (migrated < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Migration already running");
+        }
+        return ResponseEntity.ok(Map.of("migrated", migrated));
+    }
+
+    /**
+     * Rewrite the HTML of resumes stored uncompressed or as full pages into compressed body fragments
+     */
+    @PostMapping("/migrations/html-storage")
+    @ResponseBody
+    public ResponseEntity<?> migrateHtmlStorage() {
+        int migrated = htmlStorageMigrationJob.migrate();
+        if (migrated < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Migration already running");
+        }
+        return ResponseEntity.ok(Map.of("migrated", migrated));
+    }
+
+    /**
+     * Rebuild the full-text search index from MongoDB
+     */
+    @PostMapping("/search-index/rebuild")
+    @ResponseBody
+    public ResponseEntity<?> rebuildSearchIndex() {
+        try {
+            int indexed = searchIndexRebuildJob.rebuild();
+            if (indexed < 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Rebuild already running");
+            }
+            return ResponseEntity.ok(Map.of("indexed", indexed));
+        } catch (IOException e) {
+            log.error("Error rebuilding search index", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error rebuilding search index");
+        }
+    }
+
+    /**
+     * Regenerate the masked HTML of resumes masked by older masking rules
+     */
+    @PostMapping("/masking/remask")
+    @ResponseBody
+    public ResponseEntity<?> remask() {
+        int remasked = remaskJob.remask();
+        if (remasked < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Re-masking already running");
+        }
+        return ResponseEntity.ok(Map.of("remasked", remasked));
+    }
+
+    /**
+     * Extract the structured fields of resumes that have none yet or were extracted by older rules
+     */
+    @PostMapping("/extraction/backfill")
+    @ResponseBody
+    public ResponseEntity<?> backfillExtraction() {
+        int extracted = extractionBackfillJob.backfill();
+        if (extracted < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Extraction backfill already running");
+        }
+        return ResponseEntity.ok(Map.of("extracted", extracted));
+    }
+
+    /**
+     * Storage and conversion time saved by deduplicating identical uploads
+     */
+    @GetMapping("/dedup-report")
+    @ResponseBody
+    public ResponseEntity<?> dedupReport() {
+        try {
+            return ResponseEntity.ok(resumeService.getDedupReport());
+        } catch (Exception e) {
+            log.error("Error building dedup report", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error building dedup report");
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters of the rendered HTML cache
+     */
+    @GetMapping("/cache/stats")
+    @ResponseBody
+    public ResponseEntity<?> cacheStats() {
+        return ResponseEntity.ok(htmlCache.stats());
+    }
+}
@@ -1,15 +1,30 @@
 package com.kjr.rpf.controller;
 
+import com.kjr.rpf.dto.ConversionJobStatus;
+import com.kjr.rpf.dto.ResumePage;
 import com.kjr.rpf.dto.ResumeSearchCriteria;
+import com.kjr.rpf.dto.ResumeSummary;
+import com.kjr.rpf.model.ConversionStatus;
 import com.kjr.rpf.model.Resume;
 import com.kjr.rpf.service.ResumeService;
+import com.kjr.rpf.service.conversion.BulkResumeImporter;
+import com.kjr.rpf.service.conversion.ResumeConversionQueue;
+import com.kjr.rpf.service.storage.CompressedHtml;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -20,15 +35,27 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.util.HtmlUtils;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Controller
 @RequestMapping("/resumes")
@@ -36,22 +63,45 @@ import java.util.*;
 public class ResumeController {
 
     private final ResumeService resumeService;
+    private final ResumeConversionQueue conversionQueue;
+    private final BulkResumeImporter bulkImporter;
+    private final ObjectWriter exportWriter;
+
+    // Seconds clients are asked to wait before retrying an upload rejected because the conversion queue is full
+    private static final String RETRY_AFTER_SECONDS = "30";
 
 
     @Autowired
-    public ResumeController(ResumeService resumeService) {
+    public ResumeController(ResumeService resumeService, ResumeConversionQueue conversionQueue,
+                            BulkResumeImporter bulkImporter, ObjectMapper objectMapper) {
         this.resumeService = resumeService;
+        this.conversionQueue = conversionQueue;
+        this.bulkImporter = bulkImporter;
+        // One line per resume; lines are written to the response buffer without flushing after each
+        this.exportWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
      * Show all resumes page
      */
     @GetMapping("/list")
-    public String showAllResumes(Model model) {
-        List<Resume> resumes = resumeService.getAllResumes();
+    public String showAllResumes(@RequestParam(required = false) String cursor,
+                                 @RequestParam(required = false) Integer size,
+                                 @RequestParam(required = false, defaultValue = "DESC") Sort.Direction sort,
+                                 Model model) {
+        ResumePage page;
+        try {
+            page = resumeService.getResumePage(cursor, size, sort);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid page request: {}", e.getMessage());
+            return "redirect:/resumes/list";
+        }
+        List<ResumeSummary> resumes = page.getItems();
 
         // Format file sizes and set formatted file size for each resume
-        for (Resume resume : resumes) {
+        for (ResumeSummary resume : resumes) {
             if (resume.getOriginalFileSize() != null) {
                 String formattedSize = formatFileSize(resume.getOriginalFileSize());
                 resume.setFormattedFileSize(formattedSize);
@@ -66,6 +116,11 @@ public class ResumeController {
         }
 
         model.addAttribute("resumes", resumes);
+        model.addAttribute("nextPageToken", page.getNextPageToken());
+        model.addAttribute("hasMore", page.isHasMore());
+        model.addAttribute("isFirstPage", cursor == null || cursor.isBlank());
+        model.addAttribute("pageSize", size);
+        model.addAttribute("sort", sort);
         return "list";
     }
 
@@ -76,8 +131,7 @@ public class ResumeController {
     @ResponseBody
     public ResponseEntity<String> debugSearch() {
         try {
-            List<Resume> allResumes = resumeService.getAllResumes();
-            return ResponseEntity.ok("Database contains " + allResumes.size() + " resumes");
+            return ResponseEntity.ok("Database contains " + resumeService.countResumes() + " resumes");
         } catch (Exception e) {
             return ResponseEntity.ok("Error accessing database: " + e.getMessage());
         }
@@ -92,11 +146,12 @@ public class ResumeController {
     }
 
     /**
-     * Upload resume document
+     * Upload resume document, conversion continues in the background while the page polls its status
      */
     @PostMapping("/upload")
     public String uploadResume(@RequestParam("file") MultipartFile file,
                                HttpSession session,
+                               HttpServletResponse response,
                                Model model) {
         try {
             if (file.isEmpty()) {
@@ -104,20 +159,93 @@ public class ResumeController {
                 return "upload";
             }
 
-            Resume resume = resumeService.uploadAndConvertResume(file);
+            Resume resume = conversionQueue.upload(file);
 
             // Store the uploaded resume ID in session for preview
             session.setAttribute("previewResumeId", resume.getId());
 
-            // Redirect to view with preview flag
-            return "redirect:/resumes/view/" + resume.getId() + "?preview=true";
+            // The upload page polls the job and opens the preview once converted
+            model.addAttribute("jobId", resume.getId());
+            model.addAttribute("jobFileName", resume.getOriginalFileName());
+            return "upload";
 
+        } catch (RejectedExecutionException e) {
+            log.warn("Conversion queue full, rejecting upload of {}", file.getOriginalFilename());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            model.addAttribute("error", "The server is busy converting other resumes. Please try again in a moment.");
+            return "upload";
         } catch (IOException e) {
             log.error("Error uploading file", e);
             return "upload";
         }
     }
 
+    /**
+     * Upload resume document (API endpoint), answers 202 with the conversion job to poll
+     */
+    @PostMapping("/api/upload")
+    @ResponseBody
+    public ResponseEntity<?> uploadResumeApi(@RequestParam("file") MultipartFile file) {
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().body("File cannot be empty");
+            }
+            Resume resume = conversionQueue.upload(file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/resumes/api/jobs/" + resume.getId()))
+                    .body(ConversionJobStatus.of(resume));
+        } catch (RejectedExecutionException e) {
+            log.warn("Conversion queue full, rejecting upload of {}", file.getOriginalFilename());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body("Conversion queue is full, retry later");
+        } catch (IOException e) {
+            log.error("Error uploading file", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error uploading file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Upload many resumes at once, as several files and/or ZIP archives (API endpoint, requires authentication).
+     * Answers when all of them are converted and saved, with the outcome of every file.
+     */
+    @PostMapping("/api/upload/bulk")
+    @ResponseBody
+    public ResponseEntity<?> bulkUploadApi(@RequestParam("files") List<MultipartFile> files) {
+        if (!isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication required for bulk upload");
+        }
+        if (files.stream().allMatch(MultipartFile::isEmpty)) {
+            return ResponseEntity.badRequest().body("No files uploaded");
+        }
+        try {
+            return ResponseEntity.ok(bulkImporter.importFiles(files));
+        } catch (IOException e) {
+            log.error("Error during bulk upload", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error during bulk upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Conversion status of an uploaded resume (API endpoint)
+     */
+    @GetMapping("/api/jobs/{id}")
+    @ResponseBody
+    public ResponseEntity<?> getConversionJob(@PathVariable String id) {
+        try {
+            return resumeService.getConversionJob(id)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            log.error("Error retrieving conversion job: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving conversion job: " + e.getMessage());
+        }
+    }
+
     /**
      * Check if current user is authenticated
      */
@@ -137,7 +265,8 @@ public class ResumeController {
                              @RequestParam(required = false) String searchContext,
                              HttpSession session,
                              Model model) {
-        Optional<Resume> resumeOpt = resumeService.getResumeById(id);
+        // The content comes from the HTML cache, the document is loaded without it
+        Optional<Resume> resumeOpt = resumeService.getResumeMetadata(id);
         if (resumeOpt.isEmpty()) {
             return "redirect:/resumes/list?error=Resume+not+found";
         }
@@ -166,13 +295,12 @@ public class ResumeController {
         model.addAttribute("masked", masked);
 
         // Get the appropriate content based on authentication and masking preference
-        String content = null;
-        if (masked) {
-            // For masked view, get masked content
-            content = resumeService.getResumeHtmlContent(id, true);
-        } else {
-            // For authenticated users, get unmasked content
-            content = resumeService.getResumeHtmlContent(id, false);
+        String content = resumeService.getResumeHtmlContent(id, masked);
+        if (content == null) {
+            // Upload not converted (yet)
+            content = ConversionStatus.of(resume) == ConversionStatus.FAILED
+                    ? "<p>This resume could not be converted: " + HtmlUtils.htmlEscape(String.valueOf(resume.getConversionError())) + "</p>"
+                    : "<p>This resume is still being converted, please refresh in a moment.</p>";
         }
 
         // Add content to model - for template compatibility
@@ -191,17 +319,101 @@ public class ResumeController {
      * View unmasked resume (requires authentication)
      */
     @GetMapping("/unmasked/{id}")
-    public ResponseEntity<String> viewUnmaskedResume(@PathVariable String id) {
+    public ResponseEntity<?> viewUnmaskedResume(@PathVariable String id, WebRequest webRequest) throws IOException {
         if (!isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        String htmlContent = resumeService.getResumeHtmlContent(id, false);
+        Optional<Resume> validators = resumeService.getResumeValidators(id);
+        if (validators.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean gzip = CompressedHtml.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = ResumeValidators.etag(validators.get(),
+                (gzip ? "full-gz-" : "full-") + resumeService.getHtmlPageVersion());
+        long lastModified = ResumeValidators.lastModified(validators.get());
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(ResumeValidators.PRIVATE)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        byte[] htmlContent = resumeService.getCompressedHtmlContent(id, false);
         if (htmlContent == null) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(htmlContent);
+        return compressedHtml(htmlContent, gzip, etag, lastModified, ResumeValidators.PRIVATE);
+    }
+
+    /**
+     * Stored gzip HTML as-is for clients accepting gzip, otherwise decompressed while it is written
+     */
+    private static ResponseEntity<?> compressedHtml(byte[] gzip, boolean passthrough, String etag,
+                                                    long lastModified, CacheControl cacheControl) throws IOException {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8));
+        if (passthrough) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(gzip.length)
+                    .body(gzip);
+        }
+        return response.body(new InputStreamResource(CompressedHtml.open(gzip)));
+    }
+
+    // Marker returned by requestedRange for a Range header that lies outside the file
+    private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
+    /**
+     * The single byte range {first, last} a download asks for, null to send the whole file,
+     * or {@link #UNSATISFIABLE_RANGE}. Multiple ranges, malformed headers and an If-Range
+     * that no longer matches get the whole file, as HTTP allows.
+     */
+    private static long[] requestedRange(HttpServletRequest request, String etag, long lastModified, long fileSize) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || fileSize < 0) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            if (!ifRangeMatches(request, ifRange, etag, lastModified)) {
+                return null;
+            }
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (ranges.size() != 1) {
+            return null;
+        }
+        try {
+            HttpRange range = ranges.get(0);
+            return new long[]{range.getRangeStart(fileSize), range.getRangeEnd(fileSize)};
+        } catch (IllegalArgumentException e) {
+            return UNSATISFIABLE_RANGE;
+        }
+    }
+
+    /**
+     * If-Range holds the strong ETag or the Last-Modified date of the file the client has part of
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String ifRange, String etag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     /**
@@ -214,6 +426,7 @@ public class ResumeController {
                                  HttpSession session,
                                  HttpServletRequest request,
                                  HttpServletResponse response,
+                                 WebRequest webRequest,
                                  RedirectAttributes redirectAttributes) throws IOException {
 
         // Check if this is a preview download (from upload page)
@@ -229,7 +442,7 @@ public class ResumeController {
         }
 
         try {
-            Resume resume = resumeService.getResumeById(id)
+            Resume resume = resumeService.getResumeMetadata(id)
                     .orElseThrow(() -> new RuntimeException("Resume not found with id: " + id));
 
             // If this is the initial download request (not the actual file download)
@@ -273,7 +486,24 @@ public class ResumeController {
                     if (sessionToken == null || !sessionToken.equals(token)) {
                         return "redirect:/resumes/view/" + id + "?error=Invalid+download+token";
                     }
+                }
 
+                // The original never changes, a cached copy is revalidated without touching the blob store
+                // or counting another download
+                String etag = ResumeValidators.originalFileEtag(resume);
+                if (webRequest.checkNotModified(etag, ResumeValidators.uploaded(resume))) {
+                    response.setHeader(HttpHeaders.CACHE_CONTROL, ResumeValidators.PRIVATE.getHeaderValue());
+                    return null;
+                }
+                // Resumed downloads ask for the rest of the file, only the first request counts as a download
+                long fileSize = resume.getOriginalFileSize() != null ? resume.getOriginalFileSize() : -1;
+                long[] range = requestedRange(request, etag, ResumeValidators.uploaded(resume), fileSize);
+                if (range == UNSATISFIABLE_RANGE) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize);
+                    return null;
+                }
+                if (!isPreview && (range == null || range[0] == 0)) {
                     // Increment download count
                     Integer downloadCount = (Integer) session.getAttribute("downloadCount");
                     if (downloadCount == null) {
@@ -281,16 +511,34 @@ public class ResumeController {
                     }
                     session.setAttribute("downloadCount", downloadCount + 1);
                 }
+                response.setHeader(HttpHeaders.CACHE_CONTROL, ResumeValidators.PRIVATE.getHeaderValue());
 
                 // Set up file download headers
                 response.setContentType(resume.getOriginalFileType());
                 response.setHeader("Content-Disposition",
                         "attachment; filename=\"" + resume.getOriginalFileName() + "\"");
-                response.setContentLength(resume.getOriginalFileData().length);
+                if (fileSize < 0) {
+                    // Size unknown, no ranges: stream the whole file
+                    try (InputStream in = resumeService.openOriginalFile(resume);
+                         OutputStream out = response.getOutputStream()) {
+                        in.transferTo(out);
+                    }
+                    return null;
+                }
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+                long start = 0;
+                long length = fileSize;
+                if (range != null) {
+                    start = range[0];
+                    length = range[1] - range[0] + 1;
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + fileSize);
+                }
+                response.setContentLengthLong(length);
 
-                // Write file to response
+                // Stream the (requested part of the) file from the blob store to the response
                 try (OutputStream out = response.getOutputStream()) {
-                    out.write(resume.getOriginalFileData());
+                    resumeService.copyOriginalFile(resume, start, length, out);
                 }
 
                 return null;
@@ -333,35 +581,15 @@ public class ResumeController {
         return "download-thank-you";
     }
 
-    /**
-     * Serve the actual file for download
-     */
-    private ResponseEntity<ByteArrayResource> serveFile(Resume resume) {
-        byte[] fileData = resume.getOriginalFileData();
-        String fileName = resume.getOriginalFileName() != null ?
-                resume.getOriginalFileName() : "resume_" + resume.getId() + ".pdf";
-
-        ByteArrayResource resource = new ByteArrayResource(fileData);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + fileName + "\"")
-                .contentType(MediaType.parseMediaType(resume.getOriginalFileType()))
-                .contentLength(fileData.length)
-                .body(resource);
-    }
-
-    /**
-     * Get all resumes (API endpoint)
-     */
     /**
      * Get resume content with optional masking
      */
     @GetMapping("/view/{id}/content")
     @ResponseBody
-    public ResponseEntity<String> getResumeContent(
+    public ResponseEntity<?> getResumeContent(
             @PathVariable String id,
-            @RequestParam(required = false, defaultValue = "true") boolean masked) {
+            @RequestParam(required = false, defaultValue = "true") boolean masked,
+            WebRequest webRequest) {
         log.info("Fetching resume content for ID: {}, masked: {}", id, masked);
         try {
             // Input validation
@@ -377,18 +605,48 @@ public class ResumeController {
                         .body("Authentication required for unmasked content");
             }
 
-            // Get resume from service
-            return resumeService.getResumeById(id)
+            // Converted resumes are revalidated against a small projection and served from the HTML cache
+            Optional<Resume> validators = resumeService.getResumeValidators(id);
+            if (validators.isPresent() && ConversionStatus.of(validators.get()) == ConversionStatus.COMPLETED) {
+                boolean gzip = CompressedHtml.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+                // The page shell is part of the representation, a new stylesheet changes the tag
+                String representation = (masked ? "masked" : "full") + (gzip ? "-gz-" : "-")
+                        + resumeService.getHtmlPageVersion();
+                String etag = ResumeValidators.etag(validators.get(), representation);
+                long lastModified = ResumeValidators.lastModified(validators.get());
+                CacheControl cacheControl = masked ? ResumeValidators.SHARED : ResumeValidators.PRIVATE;
+                if (webRequest.checkNotModified(etag, lastModified)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .cacheControl(cacheControl)
+                            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                            .build();
+                }
+                byte[] cached = resumeService.getCompressedHtmlContent(id, masked);
+                if (cached != null) {
+                    return compressedHtml(cached, gzip, etag, lastModified, cacheControl);
+                }
+            }
+
+            // Not found or not converted: get only the requested rendition from the service to tell why
+            return resumeService.getResumeContent(id, masked)
                     .map(resume -> {
                         try {
-                            String content = resumeService.getResumeHtmlContent(id, masked);
+                            ConversionStatus status = ConversionStatus.of(resume);
+                            if (status == ConversionStatus.PENDING || status == ConversionStatus.PROCESSING) {
+                                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                        .contentType(MediaType.TEXT_HTML)
+                                        .body("<p>This resume is still being converted, please check back shortly.</p>");
+                            }
+                            String content = resumeService.renderHtmlContent(resume, masked);
                             if (content == null || content.trim().isEmpty()) {
                                 log.error("Empty content returned for resume: {}", id);
                                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                                         .body("Resume content is empty");
                             }
                             log.debug("Successfully retrieved content for resume: {}, masked: {}", id, masked);
-                            return ResponseEntity.ok(content);
+                            return ResponseEntity.ok()
+                                    .contentType(MediaType.TEXT_HTML)
+                                    .body(content);
                         } catch (Exception e) {
                             log.error("Error processing resume content for ID: {}", id, e);
                             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -409,9 +667,12 @@ public class ResumeController {
 
     @GetMapping("/api/all")
     @ResponseBody
-    public ResponseEntity<?> getAllResumes() {
+    public ResponseEntity<?> getAllResumes(@RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size,
+                                           @RequestParam(required = false, defaultValue = "DESC") Sort.Direction sort) {
         try {
-            List<Resume> resumes = resumeService.getAllResumes();
+            ResumePage page = resumeService.getResumePage(cursor, size, sort);
+            List<ResumeSummary> resumes = page.getItems();
 
             // Format file sizes and mask sensitive data for each resume
             resumes.forEach(resume -> {
@@ -420,12 +681,13 @@ public class ResumeController {
                 }
                 // Mask sensitive data
                 if (!isAuthenticated()) {
-                    resume.setEmail(resume.getMaskedEmail());
-                    resume.setPhone(resume.getMaskedPhone());
+                    resume.maskPersonalInfo();
                 }
             });
 
-            return ResponseEntity.ok(resumes);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             log.error("Error retrieving all resumes", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -433,17 +695,107 @@ public class ResumeController {
         }
     }
 
+    /**
+     * Export the structured fields of all resumes matching the criteria (all without a body)
+     * as newline-delimited JSON, masked unless authenticated (API endpoint).
+     * Streamed from a cursor, a disconnecting client stops the export.
+     */
+    @PostMapping(value = "/api/export/ndjson", produces = "application/x-ndjson")
+    @ResponseBody
+    public ResponseEntity<StreamingResponseBody> exportNdjson(@RequestBody(required = false) ResumeSearchCriteria criteria) {
+        // Resolved here, the body is written on another thread
+        boolean masked = !isAuthenticated();
+        StreamingResponseBody body = out -> {
+            long count = 0;
+            try (Stream<ResumeSummary> summaries = resumeService.streamSummaries(criteria)) {
+                for (ResumeSummary summary : (Iterable<ResumeSummary>) summaries::iterator) {
+                    if (masked) {
+                        summary.maskPersonalInfo();
+                    }
+                    exportWriter.writeValue(out, summary);
+                    out.write('\n');
+                    count++;
+                }
+            }
+            log.info("Exported {} resumes as NDJSON", count);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"resumes.ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * Export the original files of all resumes matching the criteria (all without a body)
+     * as a ZIP archive (API endpoint, requires authentication).
+     * Streamed from a cursor and the blob store, a disconnecting client stops the export.
+     */
+    @PostMapping(value = "/api/export/zip", produces = "application/zip")
+    @ResponseBody
+    public ResponseEntity<StreamingResponseBody> exportZip(@RequestBody(required = false) ResumeSearchCriteria criteria) {
+        if (!isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        StreamingResponseBody body = out -> {
+            long count = 0;
+            try (Stream<Resume> resumes = resumeService.streamOriginalFiles(criteria);
+                 ZipOutputStream zip = new ZipOutputStream(out)) {
+                // Documents are compressed formats already, do not spend CPU on them
+                zip.setLevel(Deflater.BEST_SPEED);
+                for (Resume resume : (Iterable<Resume>) resumes::iterator) {
+                    InputStream in;
+                    try {
+                        in = resumeService.openOriginalFile(resume);
+                    } catch (FileNotFoundException e) {
+                        log.warn("Original file of resume {} missing, left out of the export", resume.getId());
+                        continue;
+                    }
+                    try (in) {
+                        zip.putNextEntry(new ZipEntry(exportEntryName(resume)));
+                        in.transferTo(zip);
+                        zip.closeEntry();
+                    }
+                    count++;
+                }
+            }
+            log.info("Exported {} original files as ZIP", count);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"resumes.zip\"")
+                .body(body);
+    }
+
+    /**
+     * Unique entry name: the resume id, then the uploaded file name without any directories
+     */
+    private static String exportEntryName(Resume resume) {
+        String fileName = resume.getOriginalFileName() != null ? resume.getOriginalFileName() : "resume";
+        fileName = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1);
+        return resume.getId() + "-" + fileName;
+    }
+
     /**
      * Get resume by ID (API endpoint)
      */
     @GetMapping("/api/{id}")
     @ResponseBody
-    public ResponseEntity<?> getResumeById(@PathVariable String id) {
+    public ResponseEntity<?> getResumeById(@PathVariable String id, WebRequest webRequest) {
         try {
             if (id == null || id.trim().isEmpty()) {
                 return ResponseEntity.badRequest().body("Resume ID cannot be empty");
             }
 
+            // The JSON differs for authenticated users, so it is private and tagged per representation
+            Optional<Resume> validators = resumeService.getResumeValidators(id);
+            if (validators.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = ResumeValidators.etag(validators.get(), isAuthenticated() ? "json-full" : "json-masked");
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(ResumeValidators.PRIVATE).build();
+            }
+
             return resumeService.getResumeById(id)
                     .map(resume -> {
                         // Format file size
@@ -453,11 +805,13 @@ public class ResumeController {
 
                         // Mask sensitive data for unauthenticated users
                         if (!isAuthenticated()) {
-                            resume.setEmail(resume.getMaskedEmail());
-                            resume.setPhone(resume.getMaskedPhone());
+                            resume.maskPersonalInfo();
                         }
 
-                        return ResponseEntity.ok(resume);
+                        return ResponseEntity.ok()
+                                .eTag(etag)
+                                .cacheControl(ResumeValidators.PRIVATE)
+                                .body(resume);
                     })
                     .orElse(ResponseEntity.notFound().build());
 
@@ -509,6 +863,8 @@ public class ResumeController {
     public String searchResumes(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String uploadedBefore,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             Model model) {
 
         // Create search criteria with the query as the keyword
@@ -516,6 +872,8 @@ public class ResumeController {
         ResumeSearchCriteria criteria = ResumeSearchCriteria.builder()
                 .keyword(query)
                 .uploadedBefore(uploadedBefore)
+                .continuationToken(cursor)
+                .pageSize(size)
                 .build();
 
         // Also set individual fields for backward compatibility
@@ -528,36 +886,35 @@ public class ResumeController {
         criteria.setMajor(query);
         criteria.setDegree(query);
 
-        // Parse skills if provided
-        if (query != null && !query.trim().isEmpty()) {
-            List<String> skills = List.of(query.split("\\s*,\\s*"));
-            criteria.setProgrammingLanguages(skills);
-            criteria.setFrameworks(skills);
-            criteria.setDatabases(skills);
-            criteria.setTools(skills);
-            criteria.setCloudTechnologies(skills);
-        }
+        // Comma separated skills, aliases included, are matched in every skill category
+        criteria.setAnySkill(query);
 
         // Perform search
-        List<Resume> searchResults = resumeService.searchResumes(criteria);
+        ResumePage page;
+        try {
+            page = resumeService.searchResumes(criteria);
+        } catch (IllegalArgumentException | QueryTimeoutException e) {
+            log.warn("Invalid search request: {}", e.getMessage());
+            page = ResumePage.empty();
+        }
+        List<ResumeSummary> searchResults = page.getItems();
 
-        // Format file sizes, prepare display data, and set masked content if needed
+        // Format file sizes for display; resume content is loaded on demand by the results page
         boolean isAuthenticated = isAuthenticated();
-        for (Resume resume : searchResults) {
+        for (ResumeSummary resume : searchResults) {
             if (resume.getOriginalFileSize() != null) {
                 resume.setFormattedFileSize(formatFileSize(resume.getOriginalFileSize()));
             }
-
-            // Set masked content for unauthorized users
-            if (!isAuthenticated) {
-                String maskedContent = resumeService.getResumeHtmlContent(resume.getId(), true);
-                resume.setHtmlContent(maskedContent);
-            }
         }
 
         model.addAttribute("resumes", searchResults);
         model.addAttribute("searchCriteria", criteria);
         model.addAttribute("resultCount", searchResults.size());
+        model.addAttribute("hasMore", page.isHasMore());
+        model.addAttribute("nextPageToken", page.getNextPageToken());
+        model.addAttribute("isFirstPage", cursor == null || cursor.isBlank());
+        model.addAttribute("pageSize", size);
+        model.addAttribute("uploadedBefore", uploadedBefore);
         model.addAttribute("searchQuery", query);
         model.addAttribute("isAuthenticated", isAuthenticated);
 
@@ -575,7 +932,8 @@ public class ResumeController {
                 return ResponseEntity.badRequest().body("Search criteria cannot be null");
             }
 
-            List<Resume> results = resumeService.searchResumes(criteria);
+            ResumePage page = resumeService.searchResumes(criteria);
+            List<ResumeSummary> results = page.getItems();
             boolean isAuthenticated = isAuthenticated();
 
             // Process each result
@@ -587,8 +945,7 @@ public class ResumeController {
 
                 // Mask sensitive data for unauthenticated users
                 if (!isAuthenticated) {
-                    resume.setEmail(resume.getMaskedEmail());
-                    resume.setPhone(resume.getMaskedPhone());
+                    resume.maskPersonalInfo();
                 }
 
                 // Truncate summary for search results
@@ -597,8 +954,12 @@ public class ResumeController {
                 }
             });
 
-            return ResponseEntity.ok(results);
+            return ResponseEntity.ok(page);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (QueryTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             log.error("Error during resume search", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -606,21 +967,6 @@ public class ResumeController {
         }
     }
 
-    /**
-     * Parse comma-separated skills string into list
-     */
-    private List<String> parseSkills(String skillsString) {
-        if (skillsString == null || skillsString.trim().isEmpty()) {
-            return Arrays.asList();
-        }
-
-        return Arrays.asList(skillsString.split(","))
-                .stream()
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .collect(java.util.stream.Collectors.toList());
-    }
-
     /**
      * Format file size safely to prevent arithmetic overflow
      */
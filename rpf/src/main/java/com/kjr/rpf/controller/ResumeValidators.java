@@ -0,0 +1,53 @@
+package com.kjr.rpf.controller;
+
+import com.kjr.rpf.model.Resume;
+import org.springframework.http.CacheControl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * HTTP validators and caching policy of resume responses.
+ * ETags are strong: the SHA-256 of the original file (the id for resumes uploaded before hashing),
+ * the revision of the document and the representation, so any write to the resume changes them.
+ */
+final class ResumeValidators {
+
+    /**
+     * Masked content is the same for every visitor, shared caches may keep it but must revalidate
+     */
+    static final CacheControl SHARED = CacheControl.noCache().cachePublic();
+
+    /**
+     * Unmasked or per-user content is only kept by the browser of the authenticated user
+     */
+    static final CacheControl PRIVATE = CacheControl.noCache().cachePrivate();
+
+    private ResumeValidators() {
+    }
+
+    static String etag(Resume resume, String representation) {
+        String content = resume.getContentHash() != null ? resume.getContentHash().substring(0, 32) : resume.getId();
+        return "\"" + content + "-" + resume.getRevision() + "-" + representation + "\"";
+    }
+
+    /**
+     * ETag of the original file, which never changes once uploaded
+     */
+    static String originalFileEtag(Resume resume) {
+        return "\"" + (resume.getContentHash() != null ? resume.getContentHash() : resume.getId() + "-original") + "\"";
+    }
+
+    /**
+     * Time the content was produced: the conversion time, or the upload time before conversion
+     */
+    static long lastModified(Resume resume) {
+        LocalDateTime time = resume.getConvertedAt() != null ? resume.getConvertedAt() : resume.getUploadedAt();
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+
+    static long uploaded(Resume resume) {
+        return resume.getUploadedAt() != null
+                ? resume.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
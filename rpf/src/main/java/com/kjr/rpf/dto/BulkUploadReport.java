@@ -0,0 +1,40 @@
+package com.kjr.rpf.dto;
+
+import com.kjr.rpf.model.ConversionStatus;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk upload, one entry per uploaded file or archive entry in upload order
+ */
+@Data
+public class BulkUploadReport {
+
+    public enum Outcome {
+        /** Stored as a new resume, see its conversion status */
+        CREATED,
+        /** Same file as an existing resume, nothing stored */
+        DUPLICATE,
+        /** Not stored: unreadable, too large or over the file limit */
+        REJECTED
+    }
+
+    @Data
+    public static class FileResult {
+        private String fileName;
+        private Outcome outcome;
+        private String resumeId;
+        private ConversionStatus conversionStatus;
+        private String error;
+    }
+
+    private List<FileResult> files = new ArrayList<>();
+    private int created;
+    private int converted;
+    private int conversionFailed;
+    private int duplicates;
+    private int rejected;
+    private long elapsedMillis;
+}
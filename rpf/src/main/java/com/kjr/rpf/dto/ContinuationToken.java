@@ -0,0 +1,63 @@
+package com.kjr.rpf.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last item of a page, encoded as an opaque URL-safe token.
+ * Chronological pages are keyed on uploadedAt + id, relevance ranked pages on score + id.
+ */
+public record ContinuationToken(LocalDateTime uploadedAt, String id, Float score) {
+
+    private static final String VERSION = "k1";
+    private static final String RANKED_VERSION = "r1";
+
+    public ContinuationToken(LocalDateTime uploadedAt, String id) {
+        this(uploadedAt, id, null);
+    }
+
+    public static ContinuationToken of(ResumeSummary last) {
+        return new ContinuationToken(last.getUploadedAt(), last.getId());
+    }
+
+    public static ContinuationToken ranked(ResumeSummary last) {
+        return new ContinuationToken(null, last.getId(), last.getScore());
+    }
+
+    public boolean isRanked() {
+        return score != null;
+    }
+
+    public String encode() {
+        String raw = isRanked()
+                ? RANKED_VERSION + "|" + score + "|" + id
+                : VERSION + "|" + (uploadedAt != null ? uploadedAt : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ContinuationToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            if (RANKED_VERSION.equals(parts[0])) {
+                return new ContinuationToken(null, parts[2], Float.parseFloat(parts[1]));
+            }
+            if (!VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            LocalDateTime uploadedAt = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+            return new ContinuationToken(uploadedAt, parts[2]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+}
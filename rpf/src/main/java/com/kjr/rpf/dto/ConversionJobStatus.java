@@ -0,0 +1,36 @@
+package com.kjr.rpf.dto;
+
+import com.kjr.rpf.model.ConversionStatus;
+import com.kjr.rpf.model.Resume;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the background conversion of an uploaded resume, polled by clients after upload
+ */
+@Data
+public class ConversionJobStatus {
+
+    private String id;
+    private ConversionStatus status;
+    private String error;
+    private String originalFileName;
+    private LocalDateTime uploadedAt;
+    private LocalDateTime convertedAt;
+
+    public static ConversionJobStatus of(Resume resume) {
+        ConversionJobStatus job = new ConversionJobStatus();
+        job.setId(resume.getId());
+        job.setStatus(ConversionStatus.of(resume));
+        job.setError(resume.getConversionError());
+        job.setOriginalFileName(resume.getOriginalFileName());
+        job.setUploadedAt(resume.getUploadedAt());
+        job.setConvertedAt(resume.getConvertedAt());
+        return job;
+    }
+
+    public boolean isDone() {
+        return status == ConversionStatus.COMPLETED || status == ConversionStatus.FAILED;
+    }
+}
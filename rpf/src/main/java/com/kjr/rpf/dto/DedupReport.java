@@ -0,0 +1,16 @@
+package com.kjr.rpf.dto;
+
+import lombok.Data;
+
+/**
+ * Storage and conversion work avoided by resolving re-uploads of identical files to the existing resume
+ */
+@Data
+public class DedupReport {
+
+    private long uniqueDocuments;
+    private long duplicateUploads;
+    private long originalBytesSaved;
+    private long htmlBytesSaved;
+    private long conversionMillisSaved;
+}
@@ -0,0 +1,25 @@
+package com.kjr.rpf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of resume summaries with the token to fetch the next one
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumePage {
+
+    private List<ResumeSummary> items = new ArrayList<>();
+    private String nextPageToken; // null on the last page
+    private boolean hasMore;
+
+    public static ResumePage empty() {
+        return new ResumePage(new ArrayList<>(), null, false);
+    }
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -52,9 +53,27 @@ public class ResumeSearchCriteria {
     private Double minGpa;
 
     // General search
-    private String keyword; // Search across all text fields
+    private String keyword; // Search across all text fields, ranked by relevance when every result must match it (ALL, or no other criteria)
+
+    // Relevance ranking of keyword searches
+    private Integer topK; // Only the K best matches are loaded, defaults to app.search.index.default-top-k
+    private Float minScore; // Matches scoring below this are dropped
+
+    // How populated criteria are combined: ANY (match at least one) or ALL (match every one)
+    @Builder.Default
+    private MatchMode matchMode = MatchMode.ANY;
 
     // Date range
     private String uploadedAfter; // ISO date string
     private String uploadedBefore; // ISO date string
+
+    // Paging (keyset on uploadedAt + id)
+    private Integer pageSize; // Defaults to app.pagination.default-page-size
+    private Sort.Direction sortDirection; // By upload date, newest first by default
+    private String continuationToken; // Opaque token from the previous page
+
+    public enum MatchMode {
+        ANY,
+        ALL
+    }
 }
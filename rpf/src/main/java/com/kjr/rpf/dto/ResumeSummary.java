@@ -0,0 +1,68 @@
+package com.kjr.rpf.dto;
+
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.model.Skills;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lightweight read model of a resume for list, search and API responses.
+ * Repository methods returning this type only fetch these fields, never
+ * the converted HTML or the original file.
+ */
+@Data
+public class ResumeSummary {
+
+    @Id
+    private String id;
+
+    private String originalFileName;
+    private String originalFileType;
+    private Long originalFileSize;
+    private LocalDateTime uploadedAt;
+
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+    private String professionalSummary;
+    private Skills skills;
+
+    private String city;
+    private String state;
+
+    // Not stored, filled in by the controller for display
+    @Transient
+    private String formattedFileSize;
+
+    // Not stored, filled in by ranked keyword searches (score includes a bonus per matched criterion)
+    @Transient
+    private Float score;
+    @Transient
+    private List<String> matchedFields;
+
+    // Not stored, number of search criteria the resume matched
+    @Transient
+    private Integer matchedCriteria;
+
+    public String getMaskedEmail() {
+        return Resume.maskEmail(email);
+    }
+
+    public String getMaskedPhone() {
+        return Resume.maskPhone(phone);
+    }
+
+    /**
+     * Mask the personal information shown to anonymous users, see {@link Resume#maskPersonalInfo()}
+     */
+    public void maskPersonalInfo() {
+        email = getMaskedEmail();
+        phone = getMaskedPhone();
+        professionalSummary = Resume.maskText(professionalSummary);
+    }
+}
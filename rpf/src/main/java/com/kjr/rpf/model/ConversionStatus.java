@@ -0,0 +1,18 @@
+package com.kjr.rpf.model;
+
+/**
+ * State of the text extraction of an uploaded resume
+ */
+public enum ConversionStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED;
+
+    /**
+     * Documents stored before conversion became asynchronous have no status and are complete
+     */
+    public static ConversionStatus of(Resume resume) {
+        return resume.getConversionStatus() != null ? resume.getConversionStatus() : COMPLETED;
+    }
+}
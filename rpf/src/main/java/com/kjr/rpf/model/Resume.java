@@ -1,6 +1,9 @@
 package com.kjr.rpf.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.kjr.rpf.config.DownloadConfig;
+import com.kjr.rpf.service.masking.PiiScanner;
+import com.kjr.rpf.service.storage.CompressedHtml;
 import lombok.Data;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -24,6 +27,8 @@ public class Resume {
     
     private static DownloadConfig staticDownloadConfig;
 
+    private static final PiiScanner PII_SCANNER = new PiiScanner();
+
     @org.springframework.beans.factory.annotation.Autowired
     public void setStaticDownloadConfig(DownloadConfig downloadConfig) {
         Resume.staticDownloadConfig = downloadConfig;
@@ -34,23 +39,53 @@ public class Resume {
     private Long originalFileSize;
     private LocalDateTime uploadedAt;
 
-    // Converted HTML content
+    // Converted HTML content, gzip compressed (see CompressedHtml).
+    // The uncompressed String fields are only set on documents written before compression.
+    @JsonIgnore
+    private byte[] htmlContentGzip;
     private String htmlContent;
 
-    // Original binary data (for download)
-    private byte[] originalFileData;
+    // The HTML content with personal information masked, shown to anonymous visitors
+    @JsonIgnore
+    private byte[] maskedHtmlContentGzip;
+    private String maskedHtmlContent;
+    private String maskingRulesVersion;
+    // Shape of the stored HTML, see ResumeHtmlPage.FRAGMENT_FORMAT (absent on documents storing full pages)
+    private int htmlFormat;
+
+    // Reference to the original binary in the configured BlobStore (for download)
+    private String originalFileBlobId;
+
+    // Conversion runs in the background after upload, htmlContent is set once COMPLETED
+    private ConversionStatus conversionStatus;
+    private String conversionError;
+    private LocalDateTime convertedAt;
+    private Long conversionMillis;
+
+    // SHA-256 of the original file (unique), re-uploads of the same file resolve to this document
+    private String contentHash;
+    private int duplicateUploadCount;
+
+    // Incremented by every write, part of the HTTP ETags of the resume
+    private long revision;
 
-    // Parsed resume fields
+    // Parsed resume fields, filled from the converted text by ResumeFieldExtractor
+    private String extractionVersion;
     private String firstName;
     private String lastName;
     private String email;
     private String phone;
     private String linkedinUrl;
     private String websiteUrl;
+    // Every email and phone number in the resume, normalized (see ContactTokens), for exact indexed lookup
+    @JsonIgnore
+    private List<String> contactTokens;
     private String professionalSummary;
     private List<Education> education;
     private List<Experience> experience;
     private Skills skills;
+    // Lower-cased canonical names of all skills, see SkillsDictionary
+    private List<String> skillIds;
 
     private String city;
     private String state;
@@ -114,6 +149,44 @@ public class Resume {
      * Gets masked email (shows first 3 characters and domain)
      */
     public String getMaskedEmail() {
+        return maskEmail(email);
+    }
+
+    /**
+     * Gets masked phone number (shows last 4 digits)
+     */
+    public String getMaskedPhone() {
+        return maskPhone(phone);
+    }
+
+    /**
+     * Replace or drop everything identifying the candidate, before the resume is shown to anonymous users:
+     * email and phone are masked, personal information in the summary is masked, and the profile links,
+     * work and education history and the unmasked HTML (which {@link #getContent()} would serialize) are removed
+     */
+    public void maskPersonalInfo() {
+        email = getMaskedEmail();
+        phone = getMaskedPhone();
+        professionalSummary = maskText(professionalSummary);
+        linkedinUrl = null;
+        websiteUrl = null;
+        experience = null;
+        education = null;
+        htmlContent = null;
+        htmlContentGzip = null;
+    }
+
+    /**
+     * Text with emails, phone numbers, LinkedIn URLs and street addresses masked
+     */
+    public static String maskText(String text) {
+        return text != null ? PII_SCANNER.mask(text) : null;
+    }
+
+    /**
+     * Masks an email address, keeping the first 3 characters and the domain
+     */
+    public static String maskEmail(String email) {
         if (email == null || email.isEmpty()) {
             return "Not provided";
         }
@@ -127,9 +200,9 @@ public class Resume {
     }
 
     /**
-     * Gets masked phone number (shows last 4 digits)
+     * Masks a phone number, keeping the last 4 digits
      */
-    public String getMaskedPhone() {
+    public static String maskPhone(String phone) {
         if (phone == null || phone.isEmpty()) {
             return "Not provided";
         }
@@ -228,9 +301,34 @@ public class Resume {
      * @return unmasked HTML content
      */
     public String getContent() {
-        if (htmlContent == null) {
+        String html = getHtml();
+        if (html == null) {
             return "<div>No content available</div>";
         }
-        return htmlContent;
+        return html;
+    }
+
+    /**
+     * Unmasked HTML content, decompressed if stored compressed, or null before conversion
+     */
+    @JsonIgnore
+    public String getHtml() {
+        return htmlContent != null ? htmlContent : CompressedHtml.decompress(htmlContentGzip);
+    }
+
+    /**
+     * Masked HTML content, decompressed if stored compressed
+     */
+    @JsonIgnore
+    public String getMaskedHtml() {
+        return maskedHtmlContent != null ? maskedHtmlContent : CompressedHtml.decompress(maskedHtmlContentGzip);
+    }
+
+    /**
+     * Whether the resume has converted HTML content
+     */
+    @JsonIgnore
+    public boolean hasHtml() {
+        return htmlContent != null || htmlContentGzip != null;
     }
 }
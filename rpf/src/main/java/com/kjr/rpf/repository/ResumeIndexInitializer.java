@@ -0,0 +1,155 @@
+package com.kjr.rpf.repository;
+
+import com.kjr.rpf.model.Resume;
+import com.mongodb.MongoCommandException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.kjr.rpf.repository.ResumeRepositoryCustom.CASE_INSENSITIVE;
+
+/**
+ * Creates the indexes the resume queries rely on, as declared in {@link #CONTENT_HASH} and {@link #SEARCH_INDEXES}.
+ * An existing index is kept if it matches its declaration and rebuilt if it does not.
+ * <p>
+ * Text searched by equality, $in or prefix range is indexed under {@link ResumeRepositoryCustom#CASE_INSENSITIVE}:
+ * a query only uses an index on strings if both have the same collation, so every query on these fields
+ * has to run under it.
+ */
+@Component
+@Slf4j
+public class ResumeIndexInitializer {
+
+    // Sparse, as resumes uploaded before deduplication have no content hash
+    static final Index CONTENT_HASH = ascending("contentHash").unique().sparse();
+
+    static final List<Index> SEARCH_INDEXES = List.of(
+            // Keyset paging and upload date ranges
+            ascending("uploadedAt", "_id"),
+            // Whether an original file is still referenced when a resume is deleted
+            ascending("originalFileBlobId"),
+            // Extracted fields searched by equality and $in, ignoring case
+            ascending("email").collation(CASE_INSENSITIVE),
+            ascending("contactTokens").collation(CASE_INSENSITIVE),
+            ascending("firstName", "lastName").collation(CASE_INSENSITIVE),
+            ascending("lastName", "firstName").collation(CASE_INSENSITIVE),
+            ascending("city").collation(CASE_INSENSITIVE),
+            ascending("state").collation(CASE_INSENSITIVE),
+            ascending("skills.programmingLanguages").collation(CASE_INSENSITIVE),
+            ascending("skills.frameworks").collation(CASE_INSENSITIVE),
+            ascending("skills.databases").collation(CASE_INSENSITIVE),
+            ascending("skills.tools").collation(CASE_INSENSITIVE),
+            ascending("skills.cloudTechnologies").collation(CASE_INSENSITIVE),
+            ascending("skillIds").collation(CASE_INSENSITIVE),
+            // Searched by prefix ranges, ignoring case
+            ascending("experience.companyName").collation(CASE_INSENSITIVE),
+            ascending("experience.jobTitle").collation(CASE_INSENSITIVE),
+            ascending("education.degree").collation(CASE_INSENSITIVE),
+            ascending("education.institution").collation(CASE_INSENSITIVE),
+            ascending("education.major").collation(CASE_INSENSITIVE));
+
+    // IndexOptionsConflict, IndexKeySpecsConflict: an index of the same name has another definition
+    private static final Set<Integer> INDEX_CONFLICTS = Set.of(85, 86);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public ResumeIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Deduplication of uploads relies on the unique content hash index, so it is in place before the application
+     * accepts requests, and the application does not start without it
+     */
+    @PostConstruct
+    public void createUniqueIndexes() {
+        try {
+            createOrRebuild(mongoTemplate.indexOps(Resume.class), CONTENT_HASH);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot create the unique resume index " + name(CONTENT_HASH)
+                    + ", resumes with the same content hash have to be removed first", e);
+        }
+    }
+
+    /**
+     * The search indexes can take long to build on a large collection; until then searches are only slower
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Resume.class);
+        int failed = 0;
+        for (Index index : SEARCH_INDEXES) {
+            try {
+                createOrRebuild(indexOps, index);
+            } catch (Exception e) {
+                failed++;
+                log.error("Error creating resume index {}", name(index), e);
+            }
+        }
+
+        try {
+            Set<String> declared = Stream.concat(Stream.of(CONTENT_HASH), SEARCH_INDEXES.stream())
+                    .map(ResumeIndexInitializer::name).collect(Collectors.toSet());
+            for (IndexInfo info : indexOps.getIndexInfo()) {
+                if (!declared.contains(info.getName()) && !"_id_".equals(info.getName())) {
+                    log.warn("Resume index {} is not declared by the application", info.getName());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error listing resume indexes", e);
+        }
+
+        if (failed == 0) {
+            log.info("Resume indexes are in place ({} declared)", SEARCH_INDEXES.size() + 1);
+        }
+    }
+
+    private void createOrRebuild(IndexOperations indexOps, Index index) {
+        try {
+            // A no-op if an identical index exists
+            indexOps.createIndex(index);
+        } catch (DataAccessException e) {
+            if (!(e.getMostSpecificCause() instanceof MongoCommandException command)
+                    || !INDEX_CONFLICTS.contains(command.getErrorCode())) {
+                throw e;
+            }
+            log.warn("Resume index {} exists with another definition, rebuilding it", name(index));
+            indexOps.dropIndex(name(index));
+            indexOps.createIndex(index);
+        }
+    }
+
+    /**
+     * Index on the fields in ascending order, named like MongoDB names it by default ("lastName_1_firstName_1"),
+     * so indexes created before they were declared here are recognized
+     */
+    private static Index ascending(String... fields) {
+        Index index = new Index();
+        for (String field : fields) {
+            index.on(field, Sort.Direction.ASC);
+        }
+        return index.named(Arrays.stream(fields).map(field -> field + "_1").collect(Collectors.joining("_")));
+    }
+
+    static String name(Index index) {
+        return (String) index.getIndexOptions().get("name");
+    }
+}
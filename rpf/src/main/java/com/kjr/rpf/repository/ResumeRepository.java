@@ -1,5 +1,6 @@
 package com.kjr.rpf.repository;
 
+import com.kjr.rpf.dto.ResumeSummary;
 import com.kjr.rpf.model.Resume;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -7,102 +8,87 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Methods returning {@link ResumeSummary} are DTO projections: only the summary
+ * fields are read from MongoDB, never htmlContent.
+ */
 @Repository
-public interface ResumeRepository extends MongoRepository<Resume, String> {
-    
-    List<Resume> findByOriginalFileName(String fileName);
-    
-    List<Resume> findByEmail(String email);
-    
-    List<Resume> findByFirstNameAndLastName(String firstName, String lastName);
-    
+public interface ResumeRepository extends MongoRepository<Resume, String>, ResumeRepositoryCustom {
+
+    long countByOriginalFileBlobId(String blobId);
+
+    // Conversion state only, cheap enough for clients polling an upload
+    @Query(value = "{ '_id': ?0 }",
+            fields = "{ 'originalFileName': 1, 'uploadedAt': 1, 'conversionStatus': 1, 'conversionError': 1, 'convertedAt': 1 }")
+    Optional<Resume> findConversionStateById(String id);
+
+    // Only the masked rendition, anonymous views never need the unmasked HTML
+    @Query(value = "{ '_id': ?0 }",
+            fields = "{ 'maskedHtmlContentGzip': 1, 'maskedHtmlContent': 1, 'maskingRulesVersion': 1, 'conversionStatus': 1 }")
+    Optional<Resume> findMaskedContentById(String id);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'htmlContentGzip': 1, 'htmlContent': 1, 'conversionStatus': 1 }")
+    Optional<Resume> findHtmlContentById(String id);
+
+    // Enough to compute ETag and Last-Modified
+    @Query(value = "{ '_id': ?0 }",
+            fields = "{ 'contentHash': 1, 'revision': 1, 'uploadedAt': 1, 'convertedAt': 1, 'conversionStatus': 1 }")
+    Optional<Resume> findValidatorsById(String id);
+
+    // The original file reference only, all a delete needs besides the id
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'originalFileBlobId': 1 }")
+    Optional<Resume> findOriginalFileBlobIdById(String id);
+
+    // Everything but the HTML renditions
+    @Query(value = "{ '_id': ?0 }",
+            fields = "{ 'htmlContentGzip': 0, 'htmlContent': 0, 'maskedHtmlContentGzip': 0, 'maskedHtmlContent': 0 }")
+    Optional<Resume> findMetadataById(String id);
+    
+    // Text fields are compared under CASE_INSENSITIVE_COLLATION, the collation of their indexes
+    @Query(value = "{'email': ?0}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByEmail(String email);
+
+    @Query(value = "{'firstName': ?0, 'lastName': ?1}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByFirstNameAndLastName(String firstName, String lastName);
+
     // Basic field searches
-    List<Resume> findByFirstNameIgnoreCase(String firstName);
-    
-    List<Resume> findByLastNameIgnoreCase(String lastName);
-    
-    List<Resume> findByFirstNameIgnoreCaseOrLastNameIgnoreCase(String firstName, String lastName);
-    
-    List<Resume> findByPhone(String phone);
-    
-    List<Resume> findByCityIgnoreCase(String city);
-    
-    List<Resume> findByStateIgnoreCase(String state);
-    
+    @Query(value = "{'firstName': ?0}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByFirstNameIgnoreCase(String firstName);
+
+    @Query(value = "{'lastName': ?0}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByLastNameIgnoreCase(String lastName);
+
+    @Query(value = "{$or: [{'firstName': ?0}, {'lastName': ?1}]}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByFirstNameIgnoreCaseOrLastNameIgnoreCase(String firstName, String lastName);
+
+    @Query(value = "{'city': ?0}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByCityIgnoreCase(String city);
+
+    @Query(value = "{'state': ?0}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByStateIgnoreCase(String state);
+
     // Date range search
-    List<Resume> findByUploadedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-    
+    List<ResumeSummary> findByUploadedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
     // Skills searches - using @Query for nested object searches
-    @Query("{'skills.programmingLanguages': {$in: ?0}}")
-    List<Resume> findByProgrammingLanguagesIn(List<String> programmingLanguages);
-    
-    @Query("{'skills.frameworks': {$in: ?0}}")
-    List<Resume> findByFrameworksIn(List<String> frameworks);
-    
-    @Query("{'skills.databases': {$in: ?0}}")
-    List<Resume> findByDatabasesIn(List<String> databases);
-    
-    @Query("{'skills.tools': {$in: ?0}}")
-    List<Resume> findByToolsIn(List<String> tools);
-    
-    @Query("{'skills.cloudTechnologies': {$in: ?0}}")
-    List<Resume> findByCloudTechnologiesIn(List<String> cloudTechnologies);
-    
-    // Regex searches for skills (for anySkill search)
-    @Query("{'skills.programmingLanguages': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByProgrammingLanguagesRegex(String skillRegex);
-    
-    @Query("{'skills.frameworks': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByFrameworksRegex(String skillRegex);
-    
-    @Query("{'skills.databases': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByDatabasesRegex(String skillRegex);
-    
-    @Query("{'skills.tools': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByToolsRegex(String skillRegex);
-    
-    @Query("{'skills.cloudTechnologies': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByCloudTechnologiesRegex(String skillRegex);
-    
-    // Experience searches - using regex for partial matching
-    @Query("{'experience.companyName': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByCompanyNameRegex(String companyName);
-    
-    @Query("{'experience.jobTitle': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByJobTitleRegex(String jobTitle);
-    
-    // Education searches - using regex for partial matching
-    @Query("{'education.degree': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByDegreeRegex(String degree);
-    
-    @Query("{'education.institution': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByInstitutionRegex(String institution);
-    
-    @Query("{'education.major': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByMajorRegex(String major);
-    
-    // General text search across multiple fields
-    @Query("{$or: [\n" +
-           "    {'firstName': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'lastName': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'email': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'professionalSummary': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'experience.jobTitle': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'experience.companyName': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'experience.responsibilitiesAndAchievements': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'education.degree': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'education.institution': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'education.major': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'skills.programmingLanguages': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'skills.frameworks': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'skills.databases': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'skills.tools': {$regex: ?0, $options: 'i'}},\n" +
-           "    {'skills.cloudTechnologies': {$regex: ?0, $options: 'i'}}\n" +
-           "]}")
-    List<Resume> findByGeneralSearch(String keyword);
-    
-    // Search HTML content directly (since structured fields may not be populated)
-    @Query("{'htmlContent': {$regex: ?0, $options: 'i'}}")
-    List<Resume> findByHtmlContent(String keyword);
+    @Query(value = "{'skills.programmingLanguages': {$in: ?0}}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByProgrammingLanguagesIn(List<String> programmingLanguages);
+
+    @Query(value = "{'skills.frameworks': {$in: ?0}}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByFrameworksIn(List<String> frameworks);
+
+    @Query(value = "{'skills.databases': {$in: ?0}}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByDatabasesIn(List<String> databases);
+
+    @Query(value = "{'skills.tools': {$in: ?0}}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByToolsIn(List<String> tools);
+
+    @Query(value = "{'skills.cloudTechnologies': {$in: ?0}}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findByCloudTechnologiesIn(List<String> cloudTechnologies);
+
+    // Any skill, by canonical id (see SkillsDictionary)
+    @Query(value = "{'skillIds': {$in: ?0}}", collation = CASE_INSENSITIVE_COLLATION)
+    List<ResumeSummary> findBySkillIdsIn(List<String> skillIds);
 }
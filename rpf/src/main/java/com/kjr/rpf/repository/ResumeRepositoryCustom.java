@@ -0,0 +1,125 @@
+package com.kjr.rpf.repository;
+
+import com.kjr.rpf.dto.ContinuationToken;
+import com.kjr.rpf.dto.DedupReport;
+import com.kjr.rpf.dto.ResumePage;
+import com.kjr.rpf.dto.ResumeSummary;
+import com.kjr.rpf.model.ConversionStatus;
+import com.kjr.rpf.model.Resume;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queries built on MongoTemplate that cannot be expressed as derived repository methods
+ */
+public interface ResumeRepositoryCustom {
+
+    /**
+     * {@link #CASE_INSENSITIVE} as written in repository query annotations
+     */
+    String CASE_INSENSITIVE_COLLATION = "{ 'locale': 'en', 'strength': 2 }";
+
+    /**
+     * Collation of filtered queries and of the indexes on the text fields they compare
+     * (see {@link ResumeIndexInitializer}): string equality ignores case, but not diacritics
+     */
+    Collation CASE_INSENSITIVE = Collation.parse(CASE_INSENSITIVE_COLLATION);
+
+    /**
+     * Fetch one page of resume summaries matching the filter, ordered by uploadedAt and id.
+     * Paging is keyset based, so deep pages cost the same as the first one.
+     * A filtered query runs under {@link #CASE_INSENSITIVE} and is aborted once it exceeds the search time limit.
+     *
+     * @param filter    criteria to match, or null for all resumes
+     * @param after     position of the last item of the previous page, or null for the first page
+     * @param pageSize  maximum number of items to return
+     * @param direction sort direction of uploadedAt (and id as tie breaker)
+     */
+    ResumePage findSummaryPage(Criteria filter, ContinuationToken after, int pageSize, Sort.Direction direction);
+
+    /**
+     * Like {@link #findSummaryPage(Criteria, ContinuationToken, int, Sort.Direction)}, also setting on every item
+     * the number of the clauses it matches ({@link ResumeSummary#getMatchedCriteria()}).
+     * The clauses are evaluated on the page's documents within the same aggregation, so it is still one round trip.
+     */
+    ResumePage findSummaryPage(Criteria filter, List<Criteria> clauses, ContinuationToken after, int pageSize,
+                               Sort.Direction direction);
+
+    /**
+     * Fetch the summaries of all resumes matching the filter, in no particular order,
+     * under the same collation and time limit as {@link #findSummaryPage}
+     *
+     * @param limit maximum number of items to return
+     */
+    List<ResumeSummary> findSummaries(Criteria filter, int limit);
+
+    /**
+     * Fetch the summaries of all resumes matching the filter, merged with at most {@code othersLimit} of the most
+     * recently uploaded resumes matching {@code others}, in no particular order. Like
+     * {@link #findSummaryPage(Criteria, List, ContinuationToken, int, Sort.Direction)}, every item carries the number
+     * of the clauses it matches, and the whole selection is a single aggregation.
+     *
+     * @param filter      criteria of the resumes to fetch, each should match only a bounded number of them
+     * @param others      criteria of the resumes to merge in, should exclude those matching the filter
+     * @param othersLimit maximum number of resumes to merge in
+     */
+    List<ResumeSummary> findSummaries(Criteria filter, Criteria others, int othersLimit, List<Criteria> clauses);
+
+    /**
+     * Stream the summaries of all resumes matching the filter from a cursor, newest first.
+     * Runs under {@link #CASE_INSENSITIVE} without a time limit, as exports are expected to take long.
+     * The stream must be closed to release the cursor.
+     *
+     * @param filter criteria to match, or null for all resumes
+     */
+    Stream<ResumeSummary> streamSummaries(Criteria filter);
+
+    /**
+     * Stream id, name, type, size and blob id of the original file of all resumes matching the filter,
+     * newest first. The stream must be closed to release the cursor.
+     *
+     * @param filter criteria to match, or null for all resumes
+     */
+    Stream<Resume> streamOriginalFiles(Criteria filter);
+
+    /**
+     * Record the conversion state of a resume without rewriting the rest of the document
+     *
+     * @param htmlContentGzip gzip compressed converted page, only set together with COMPLETED
+     * @param maskedHtmlContentGzip gzip compressed masked rendition of the page, set together with htmlContentGzip
+     * @return false if the resume no longer exists
+     */
+    boolean updateConversion(String id, ConversionStatus status, byte[] htmlContentGzip, byte[] maskedHtmlContentGzip,
+                             String maskingRulesVersion, String error, Long conversionMillis);
+
+    /**
+     * Store the structured fields extracted from a resume's text, replacing earlier values
+     *
+     * @param fields resume holding the extracted fields and the extraction version
+     * @return false if the resume no longer exists
+     */
+    boolean updateExtractedFields(String id, Resume fields);
+
+    /**
+     * Count one more upload of the file with the given hash. The revision is left alone,
+     * as the resume a client sees does not change.
+     * @return the resume holding that file (conversion state only), or empty if there is none
+     */
+    Optional<Resume> registerDuplicateUpload(String contentHash);
+
+    /**
+     * Set a resume whose conversion FAILED back to PENDING
+     * @return false if the resume does not exist or its conversion is not FAILED (anymore)
+     */
+    boolean retryFailedConversion(String id);
+
+    /**
+     * Totals of what content-hash deduplication avoided storing and converting
+     */
+    DedupReport dedupReport();
+}
@@ -0,0 +1,333 @@
+package com.kjr.rpf.repository;
+
+import com.kjr.rpf.config.SearchQueryConfig;
+import com.kjr.rpf.dto.ContinuationToken;
+import com.kjr.rpf.dto.DedupReport;
+import com.kjr.rpf.dto.ResumePage;
+import com.kjr.rpf.dto.ResumeSummary;
+import com.kjr.rpf.model.ConversionStatus;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.conversion.ResumeHtmlPage;
+import com.kjr.rpf.service.search.CriteriaMatchCounter;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class ResumeRepositoryCustomImpl implements ResumeRepositoryCustom {
+
+    private static final int EXPORT_BATCH_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final SearchQueryConfig searchQueryConfig;
+
+    @Autowired
+    public ResumeRepositoryCustomImpl(MongoTemplate mongoTemplate, SearchQueryConfig searchQueryConfig) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchQueryConfig = searchQueryConfig;
+    }
+
+    @Override
+    public ResumePage findSummaryPage(Criteria filter, ContinuationToken after, int pageSize, Sort.Direction direction) {
+        // Fetch one extra item to find out whether there is a next page
+        Query query = new Query(pageCriteria(filter, after, direction))
+                .with(Sort.by(direction, "uploadedAt").and(Sort.by(direction, "_id")))
+                .limit(pageSize + 1);
+        if (filter != null) {
+            limitSearch(query);
+        }
+
+        List<ResumeSummary> items = mongoTemplate.query(Resume.class)
+                .as(ResumeSummary.class)
+                .matching(query)
+                .all();
+        return page(items, pageSize);
+    }
+
+    @Override
+    public ResumePage findSummaryPage(Criteria filter, List<Criteria> clauses, ContinuationToken after, int pageSize,
+                                      Sort.Direction direction) {
+        List<ResumeSummary> items = findCounting(clauses,
+                Aggregation.match(pageCriteria(filter, after, direction)),
+                Aggregation.sort(Sort.by(direction, "uploadedAt").and(Sort.by(direction, "_id"))),
+                Aggregation.limit(pageSize + 1));
+        return page(items, pageSize);
+    }
+
+    private static Criteria pageCriteria(Criteria filter, ContinuationToken after, Sort.Direction direction) {
+        if (after != null && after.isRanked()) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+        Criteria criteria = filter != null ? filter : new Criteria();
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, keysetAfter(after, direction));
+        }
+        return criteria;
+    }
+
+    private static ResumePage page(List<ResumeSummary> items, int pageSize) {
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        String nextPageToken = hasMore ? ContinuationToken.of(items.get(items.size() - 1)).encode() : null;
+        return new ResumePage(items, nextPageToken, hasMore);
+    }
+
+    @Override
+    public List<ResumeSummary> findSummaries(Criteria filter, int limit) {
+        return mongoTemplate.query(Resume.class)
+                .as(ResumeSummary.class)
+                .matching(limitSearch(new Query(filter).limit(limit)))
+                .all();
+    }
+
+    @Override
+    public List<ResumeSummary> findSummaries(Criteria filter, Criteria others, int othersLimit, List<Criteria> clauses) {
+        return findCounting(clauses,
+                Aggregation.match(filter),
+                UnionWithOperation.unionWith(mongoTemplate.getCollectionName(Resume.class))
+                        .mapFieldsTo(Resume.class)
+                        .pipeline(Aggregation.match(others),
+                                Aggregation.sort(Sort.by(Sort.Direction.DESC, "uploadedAt").and(Sort.by(Sort.Direction.DESC, "_id"))),
+                                Aggregation.limit(othersLimit)));
+    }
+
+    /**
+     * Evaluate string equality ignoring case and abort the query server side when it runs longer than
+     * the search time limit, so a single search cannot hold a database core
+     */
+    private Query limitSearch(Query query) {
+        return query.collation(CASE_INSENSITIVE).maxTime(Duration.ofMillis(searchQueryConfig.getMaxTimeMs()));
+    }
+
+    @Override
+    public Stream<ResumeSummary> streamSummaries(Criteria filter) {
+        return mongoTemplate.query(Resume.class)
+                .as(ResumeSummary.class)
+                .matching(exportQuery(filter))
+                .stream();
+    }
+
+    @Override
+    public Stream<Resume> streamOriginalFiles(Criteria filter) {
+        Query query = exportQuery(filter);
+        query.fields().include("_id", "originalFileName", "originalFileType", "originalFileSize", "originalFileBlobId");
+        return mongoTemplate.stream(query, Resume.class);
+    }
+
+    private static Query exportQuery(Criteria filter) {
+        // Batches keep the cursor's memory bounded however many documents match
+        Query query = new Query(filter != null ? filter : new Criteria())
+                .with(Sort.by(Sort.Direction.DESC, "uploadedAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .cursorBatchSize(EXPORT_BATCH_SIZE);
+        return filter != null ? query.collation(CASE_INSENSITIVE) : query;
+    }
+
+    /**
+     * Run the selecting stages, then in the same aggregation project the selected documents to summaries and
+     * match each clause against them, setting the number of clauses matched on every summary
+     */
+    private List<ResumeSummary> findCounting(List<Criteria> clauses, AggregationOperation... selection) {
+        // One facet with the summaries, and one per clause with the ids of the documents matching it
+        FacetOperation facet = Aggregation.facet(Aggregation.project(summaryFields())).as("items");
+        for (int i = 0; i < clauses.size(); i++) {
+            facet = facet.and(Aggregation.match(clauses.get(i)), Aggregation.project("_id")).as("c" + i);
+        }
+        List<AggregationOperation> operations = new ArrayList<>(List.of(selection));
+        operations.add(facet);
+        TypedAggregation<Resume> aggregation = Aggregation.newAggregation(Resume.class, operations)
+                .withOptions(AggregationOptions.builder()
+                        .collation(CASE_INSENSITIVE)
+                        .maxTime(Duration.ofMillis(searchQueryConfig.getMaxTimeMs()))
+                        .build());
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return new ArrayList<>();
+        }
+
+        List<ResumeSummary> items = new ArrayList<>();
+        for (Document document : result.getList("items", Document.class, List.of())) {
+            items.add(mongoTemplate.getConverter().read(ResumeSummary.class, document));
+        }
+        CriteriaMatchCounter counter = new CriteriaMatchCounter(items.stream()
+                .map(ResumeSummary::getId).filter(ObjectId::isValid).map(ObjectId::new).toList());
+        for (int i = 0; i < clauses.size(); i++) {
+            counter.addAll(result.getList("c" + i, Document.class, List.of()).stream()
+                    .map(document -> document.getObjectId("_id")).toList());
+        }
+        items.forEach(summary -> summary.setMatchedCriteria(counter.count(summary.getId())));
+        return items;
+    }
+
+    /**
+     * Stored fields of {@link ResumeSummary}, what its repository projections read
+     */
+    private String[] summaryFields() {
+        List<String> fields = new ArrayList<>();
+        mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(ResumeSummary.class)
+                .doWithProperties((PropertyHandler<MongoPersistentProperty>) property -> fields.add(property.getFieldName()));
+        return fields.toArray(String[]::new);
+    }
+
+    @Override
+    public boolean updateConversion(String id, ConversionStatus status, byte[] htmlContentGzip,
+                                    byte[] maskedHtmlContentGzip, String maskingRulesVersion, String error,
+                                    Long conversionMillis) {
+        Update update = new Update().set("conversionStatus", status).inc("revision", 1);
+        if (error != null) {
+            update.set("conversionError", error);
+        } else {
+            update.unset("conversionError");
+        }
+        if (htmlContentGzip != null) {
+            update.set("htmlContentGzip", htmlContentGzip)
+                    .set("maskedHtmlContentGzip", maskedHtmlContentGzip)
+                    .unset("htmlContent")
+                    .unset("maskedHtmlContent")
+                    .set("maskingRulesVersion", maskingRulesVersion)
+                    .set("htmlFormat", ResumeHtmlPage.FRAGMENT_FORMAT)
+                    .set("convertedAt", LocalDateTime.now())
+                    .set("conversionMillis", conversionMillis);
+        }
+        // No upsert: a resume deleted while converting stays deleted
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)), update, Resume.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean updateExtractedFields(String id, Resume fields) {
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)), extractedFields(fields), Resume.class)
+                .getMatchedCount() > 0;
+    }
+
+    /**
+     * Update setting the extracted fields of the resume, absent ones are removed from the document
+     */
+    private static Update extractedFields(Resume fields) {
+        Update update = new Update().set("extractionVersion", fields.getExtractionVersion()).inc("revision", 1);
+        setOrUnset(update, "firstName", fields.getFirstName());
+        setOrUnset(update, "lastName", fields.getLastName());
+        setOrUnset(update, "email", fields.getEmail());
+        setOrUnset(update, "phone", fields.getPhone());
+        setOrUnset(update, "linkedinUrl", fields.getLinkedinUrl());
+        setOrUnset(update, "websiteUrl", fields.getWebsiteUrl());
+        setOrUnset(update, "contactTokens", fields.getContactTokens());
+        setOrUnset(update, "professionalSummary", fields.getProfessionalSummary());
+        setOrUnset(update, "city", fields.getCity());
+        setOrUnset(update, "state", fields.getState());
+        setOrUnset(update, "country", fields.getCountry());
+        setOrUnset(update, "skills", fields.getSkills());
+        setOrUnset(update, "skillIds", fields.getSkillIds());
+        setOrUnset(update, "experience", fields.getExperience());
+        setOrUnset(update, "education", fields.getEducation());
+        return update;
+    }
+
+    private static void setOrUnset(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
+        } else {
+            update.unset(field);
+        }
+    }
+
+    @Override
+    public Optional<Resume> registerDuplicateUpload(String contentHash) {
+        Query query = Query.query(Criteria.where("contentHash").is(contentHash));
+        query.fields().include("originalFileName", "uploadedAt", "conversionStatus", "conversionError",
+                "convertedAt", "duplicateUploadCount");
+        return Optional.ofNullable(mongoTemplate.findAndModify(query,
+                new Update().inc("duplicateUploadCount", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                Resume.class));
+    }
+
+    @Override
+    public boolean retryFailedConversion(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id).and("conversionStatus").is(ConversionStatus.FAILED));
+        Update update = new Update().set("conversionStatus", ConversionStatus.PENDING)
+                .unset("conversionError")
+                .inc("revision", 1);
+        return mongoTemplate.updateFirst(query, update, Resume.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public DedupReport dedupReport() {
+        // Every duplicate upload would have stored one more original file and HTML page and run one more conversion
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("contentHash").exists(true)),
+                Aggregation.stage("""
+                        { $group: {
+                            _id: null,
+                            uniqueDocuments: { $sum: 1 },
+                            duplicateUploads: { $sum: { $ifNull: ["$duplicateUploadCount", 0] } },
+                            originalBytesSaved: { $sum: { $multiply: [
+                                { $ifNull: ["$duplicateUploadCount", 0] }, { $ifNull: ["$originalFileSize", 0] } ] } },
+                            htmlBytesSaved: { $sum: { $multiply: [
+                                { $ifNull: ["$duplicateUploadCount", 0] }, { $add: [
+                                    { $binarySize: { $ifNull: ["$htmlContentGzip", ""] } },
+                                    { $strLenBytes: { $ifNull: ["$htmlContent", ""] } } ] } ] } },
+                            conversionMillisSaved: { $sum: { $multiply: [
+                                { $ifNull: ["$duplicateUploadCount", 0] }, { $ifNull: ["$conversionMillis", 0] } ] } }
+                        } }"""));
+        DedupReport report = mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Resume.class),
+                DedupReport.class).getUniqueMappedResult();
+        return report != null ? report : new DedupReport();
+    }
+
+    /**
+     * Criteria selecting everything after the given position in (uploadedAt, _id) order.
+     * Documents without uploadedAt sort before all dates, so they come last when descending.
+     */
+    private static Criteria keysetAfter(ContinuationToken after, Sort.Direction direction) {
+        ObjectId id = toObjectId(after.id());
+        boolean descending = direction.isDescending();
+
+        if (after.uploadedAt() == null) {
+            if (descending) {
+                return Criteria.where("uploadedAt").is(null).and("_id").lt(id);
+            }
+            return new Criteria().orOperator(
+                    Criteria.where("uploadedAt").is(null).and("_id").gt(id),
+                    Criteria.where("uploadedAt").ne(null));
+        }
+
+        if (descending) {
+            return new Criteria().orOperator(
+                    Criteria.where("uploadedAt").lt(after.uploadedAt()),
+                    Criteria.where("uploadedAt").is(after.uploadedAt()).and("_id").lt(id),
+                    Criteria.where("uploadedAt").is(null));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("uploadedAt").gt(after.uploadedAt()),
+                Criteria.where("uploadedAt").is(after.uploadedAt()).and("_id").gt(id));
+    }
+
+    private static ObjectId toObjectId(String id) {
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+        return new ObjectId(id);
+    }
+}
@@ -1,49 +1,116 @@
 package com.kjr.rpf.service;
 
+import com.kjr.rpf.config.PaginationConfig;
+import com.kjr.rpf.config.SearchIndexConfig;
+import com.kjr.rpf.dto.ContinuationToken;
+import com.kjr.rpf.dto.ConversionJobStatus;
+import com.kjr.rpf.dto.DedupReport;
+import com.kjr.rpf.dto.ResumePage;
 import com.kjr.rpf.dto.ResumeSearchCriteria;
+import com.kjr.rpf.dto.ResumeSummary;
+import com.kjr.rpf.model.ConversionStatus;
 import com.kjr.rpf.model.Resume;
 import com.kjr.rpf.repository.ResumeRepository;
+import com.kjr.rpf.service.cache.ResumeHtmlCache;
+import com.kjr.rpf.service.conversion.ResumeHtmlConverter;
+import com.kjr.rpf.service.conversion.ResumeHtmlPage;
+import com.kjr.rpf.service.extraction.ResumeFieldExtractor;
+import com.kjr.rpf.service.masking.PersonalInfoMasker;
+import com.kjr.rpf.service.search.ResumeQueryCompiler;
+import com.kjr.rpf.service.search.ResumeSearchIndex;
+import com.kjr.rpf.service.search.ResumeText;
+import com.kjr.rpf.service.search.SearchHit;
+import com.kjr.rpf.service.storage.BlobStore;
+import com.kjr.rpf.service.storage.CompressedHtml;
+import com.mongodb.MongoExecutionTimeoutException;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.tika.Tika;
-import org.apache.tika.exception.TikaException;
-import org.apache.tika.metadata.Metadata;
-import org.apache.tika.parser.AutoDetectParser;
-import org.apache.tika.parser.ParseContext;
-import org.apache.tika.parser.Parser;
-import org.apache.tika.sax.BodyContentHandler;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.xml.sax.SAXException;
 
-import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class ResumeService {
 
     private final ResumeRepository resumeRepository;
-    private final Tika tika = new Tika();
+    private final BlobStore blobStore;
+    private final PaginationConfig paginationConfig;
+    private final ResumeQueryCompiler queryCompiler;
+    private final ResumeSearchIndex searchIndex;
+    private final SearchIndexConfig searchIndexConfig;
+    private final ResumeHtmlConverter htmlConverter;
+    private final PersonalInfoMasker masker;
+    private final ResumeHtmlCache htmlCache;
+    private final ResumeHtmlPage htmlPage;
+    private final ResumeFieldExtractor fieldExtractor;
+
+    // Relevance order of ranked search results, id breaks ties so paging is deterministic
+    private static final Comparator<ResumeSummary> BY_RELEVANCE = Comparator
+            .comparing(ResumeSummary::getScore, Comparator.reverseOrder())
+            .thenComparing(ResumeSummary::getId);
 
 
     @Autowired
-    public ResumeService(ResumeRepository resumeRepository) {
+    public ResumeService(ResumeRepository resumeRepository, BlobStore blobStore, PaginationConfig paginationConfig,
+                         ResumeQueryCompiler queryCompiler, ResumeSearchIndex searchIndex,
+                         SearchIndexConfig searchIndexConfig, ResumeHtmlConverter htmlConverter,
+                         PersonalInfoMasker masker, ResumeHtmlCache htmlCache, ResumeHtmlPage htmlPage,
+                         ResumeFieldExtractor fieldExtractor) {
         this.resumeRepository = resumeRepository;
+        this.blobStore = blobStore;
+        this.paginationConfig = paginationConfig;
+        this.queryCompiler = queryCompiler;
+        this.searchIndex = searchIndex;
+        this.searchIndexConfig = searchIndexConfig;
+        this.htmlConverter = htmlConverter;
+        this.masker = masker;
+        this.htmlCache = htmlCache;
+        this.htmlPage = htmlPage;
+        this.fieldExtractor = fieldExtractor;
     }
 
     /**
-     * Upload and convert document to HTML using Apache Tika
+     * Result of storing an upload: a new PENDING resume, or the existing resume of an identical file.
+     * With {@code retry} the existing resume's conversion had failed and is PENDING again, the caller queues it.
      */
-    public Resume uploadAndConvertResume(MultipartFile file) throws IOException {
+    public record StoredUpload(Resume resume, boolean duplicate, boolean retry) {
+
+        public StoredUpload(Resume resume, boolean duplicate) {
+            this(resume, duplicate, false);
+        }
+    }
+
+    /**
+     * Store an uploaded document and save its resume as PENDING.
+     * The document is converted later by {@link #convertResume(String)}.
+     * A file that was uploaded before resolves to the existing resume and is neither stored nor converted again,
+     * unless its conversion failed.
+     */
+    public StoredUpload storeUpload(MultipartFile file) throws IOException {
         log.info("Processing file: {}", file.getOriginalFilename());
 
         // Check file size before processing to prevent overflow
@@ -52,93 +119,307 @@ public class ResumeService {
             throw new IOException("File size exceeds maximum limit of 100MB: " + file.getSize() + " bytes");
         }
 
+        // Hash the spooled upload first, so duplicates cost one sequential read and nothing else
+        String contentHash = sha256(file);
+        Optional<StoredUpload> existing = registerDuplicateUpload(contentHash);
+        if (existing.isPresent()) {
+            log.info("File {} is a duplicate of resume {}", file.getOriginalFilename(), existing.get().resume().getId());
+            return existing.get();
+        }
+
         // Create Resume document
         Resume resume = new Resume();
         resume.setOriginalFileName(file.getOriginalFilename());
         resume.setOriginalFileType(file.getContentType());
         resume.setOriginalFileSize(file.getSize());
         resume.setUploadedAt(LocalDateTime.now());
-        resume.setOriginalFileData(file.getBytes());
+        resume.setConversionStatus(ConversionStatus.PENDING);
+        resume.setContentHash(contentHash);
 
-        // Convert to HTML using Tika
-        String htmlContent = convertToHtml(file.getBytes());
-        resume.setHtmlContent(htmlContent);
+        // Keep the original file in the blob store, the document only references it
+        String blobId;
+        try (InputStream in = file.getInputStream()) {
+            blobId = blobStore.store(in, file.getOriginalFilename(), file.getContentType());
+        }
+        resume.setOriginalFileBlobId(blobId);
 
         // Save to MongoDB
-        Resume savedResume = resumeRepository.save(resume);
-        log.info("Resume saved with ID: {}", savedResume.getId());
+        Resume savedResume;
+        try {
+            savedResume = resumeRepository.save(resume);
+        } catch (DuplicateKeyException e) {
+            // The same file was uploaded concurrently and saved first
+            deleteBlobIfUnreferenced(blobId);
+            return registerDuplicateUpload(contentHash).orElseThrow(() -> e);
+        } catch (RuntimeException e) {
+            deleteBlobIfUnreferenced(blobId);
+            throw e;
+        }
+        log.info("Resume saved with ID: {}, conversion pending", savedResume.getId());
+        return new StoredUpload(savedResume, false);
+    }
 
-        return savedResume;
+    /**
+     * Convert the stored original file of a resume to HTML using Apache Tika and extract its structured fields.
+     * Failures are recorded on the resume as FAILED rather than thrown.
+     */
+    public void convertResume(String id) {
+        Optional<Resume> found = resumeRepository.findById(id);
+        if (found.isEmpty()) {
+            log.warn("Resume {} was deleted before it could be converted", id);
+            return;
+        }
+        Resume resume = found.get();
+        resumeRepository.updateConversion(id, ConversionStatus.PROCESSING, null, null, null, null, null);
+
+        long start = System.currentTimeMillis();
+        try (InputStream in = openOriginalFile(resume)) {
+            String htmlContent = htmlConverter.convert(in);
+            long conversionMillis = System.currentTimeMillis() - start;
+            // Fields are stored before the status, so a COMPLETED resume can be found by them
+            if (extractFields(htmlContent, resume)) {
+                resumeRepository.updateExtractedFields(id, resume);
+            }
+            // Mask and compress once here instead of on every view
+            byte[] htmlContentGzip = CompressedHtml.compress(htmlContent);
+            byte[] maskedHtmlContentGzip = CompressedHtml.compress(masker.mask(htmlContent));
+            if (!resumeRepository.updateConversion(id, ConversionStatus.COMPLETED, htmlContentGzip, maskedHtmlContentGzip,
+                    PersonalInfoMasker.RULES_VERSION, null, conversionMillis)) {
+                log.warn("Resume {} was deleted during conversion", id);
+                return;
+            }
+            log.info("Resume {} converted in {} ms", id, conversionMillis);
+            htmlCache.invalidate(id);
+            resume.setHtmlContent(htmlContent);
+            updateSearchIndex(resume);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error converting resume {}", id, e);
+            resumeRepository.updateConversion(id, ConversionStatus.FAILED, null, null, null,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), null);
+        }
+    }
+
+    /**
+     * Store a file of a bulk import in the blob store, hashing it on the way, and build its PENDING resume
+     * without saving it; {@link #convertStaged(Resume)} and {@link #insertStaged(List)} complete it.
+     * A file that was uploaded before resolves to the existing resume and its stored copy is dropped again;
+     * if that resume's conversion failed the caller converts it again.
+     */
+    public StoredUpload stageUpload(InputStream content, String fileName, String contentType) throws IOException {
+        MessageDigest digest = sha256();
+        CountingInputStream counting = new CountingInputStream(new DigestInputStream(content, digest));
+        String blobId = blobStore.store(counting, fileName, contentType);
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+
+        Optional<StoredUpload> existing = registerDuplicateUpload(contentHash);
+        if (existing.isPresent()) {
+            log.info("File {} is a duplicate of resume {}", fileName, existing.get().resume().getId());
+            deleteBlobIfUnreferenced(blobId);
+            return existing.get();
+        }
+
+        Resume resume = new Resume();
+        // Assigned up front, so a partially applied batch insert can tell which documents made it
+        resume.setId(new ObjectId().toHexString());
+        resume.setOriginalFileName(fileName);
+        resume.setOriginalFileType(contentType);
+        resume.setOriginalFileSize(counting.getCount());
+        resume.setUploadedAt(LocalDateTime.now());
+        resume.setConversionStatus(ConversionStatus.PENDING);
+        resume.setContentHash(contentHash);
+        resume.setOriginalFileBlobId(blobId);
+        return new StoredUpload(resume, false);
+    }
+
+    /**
+     * Convert a staged resume in memory, recording failures on it as FAILED rather than throwing
+     */
+    public void convertStaged(Resume resume) {
+        long start = System.currentTimeMillis();
+        try (InputStream in = openOriginalFile(resume)) {
+            String htmlContent = htmlConverter.convert(in);
+            resume.setHtmlContentGzip(CompressedHtml.compress(htmlContent));
+            resume.setMaskedHtmlContentGzip(CompressedHtml.compress(masker.mask(htmlContent)));
+            resume.setMaskingRulesVersion(PersonalInfoMasker.RULES_VERSION);
+            resume.setHtmlFormat(ResumeHtmlPage.FRAGMENT_FORMAT);
+            extractFields(htmlContent, resume);
+            resume.setConversionStatus(ConversionStatus.COMPLETED);
+            resume.setConvertedAt(LocalDateTime.now());
+            resume.setConversionMillis(System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error converting {}", resume.getOriginalFileName(), e);
+            resume.setConversionStatus(ConversionStatus.FAILED);
+            resume.setConversionError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        resume.setRevision(1);
+    }
+
+    /**
+     * Set the structured fields found in the converted HTML on the resume.
+     * A failure only leaves the fields to the extraction backfill, the conversion still succeeds.
+     * @return whether the fields were extracted
+     */
+    private boolean extractFields(String htmlContent, Resume resume) {
+        try {
+            fieldExtractor.extract(ResumeText.fromHtml(htmlContent), resume);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Error extracting fields of resume {}", resume.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Save staged resumes with a single insertMany and index them.
+     * If one collides with a concurrent upload of the same file, the batch is finished one by one
+     * and that file resolves to the resume saved first.
+     * @return the stored or existing resume of every staged one, in order
+     */
+    public List<StoredUpload> insertStaged(List<Resume> resumes) {
+        List<StoredUpload> stored = new ArrayList<>(resumes.size());
+        try {
+            resumeRepository.insert(resumes);
+            resumes.forEach(resume -> stored.add(new StoredUpload(resume, false)));
+        } catch (DuplicateKeyException e) {
+            log.info("Batch of {} imported resumes hit a duplicate, inserting one by one", resumes.size());
+            for (Resume resume : resumes) {
+                stored.add(insertStaged(resume));
+            }
+        }
+        List<Resume> converted = stored.stream()
+                .filter(upload -> !upload.duplicate() && upload.resume().hasHtml())
+                .map(StoredUpload::resume)
+                .toList();
+        if (!converted.isEmpty()) {
+            try {
+                searchIndex.indexAll(converted);
+            } catch (IOException e) {
+                log.error("Failed to index a batch of {} imported resumes", converted.size(), e);
+            }
+        }
+        return stored;
+    }
+
+    private StoredUpload insertStaged(Resume resume) {
+        if (resumeRepository.existsById(resume.getId())) {
+            // Inserted before the batch stopped
+            return new StoredUpload(resume, false);
+        }
+        try {
+            return new StoredUpload(resumeRepository.insert(resume), false);
+        } catch (DuplicateKeyException e) {
+            deleteBlobIfUnreferenced(resume.getOriginalFileBlobId());
+            return registerDuplicateUpload(resume.getContentHash()).orElseThrow(() -> e);
+        }
     }
 
     /**
-     * Convert document to HTML format using Apache Tika
-     */
-    private String convertToHtml(byte[] fileData) throws IOException {
-        try (InputStream inputStream = new ByteArrayInputStream(fileData)) {
-            // Create parser and metadata
-            Parser parser = new AutoDetectParser();
-            BodyContentHandler handler = new BodyContentHandler(100 * 1024 * 1024); // 100MB limit to prevent overflow
-            Metadata metadata = new Metadata();
-            ParseContext parseContext = new ParseContext();
-
-            // Parse document
-            parser.parse(inputStream, handler, metadata, parseContext);
-
-            // Get text content and wrap in HTML
-            String textContent = handler.toString();
-
-            // Create formatted HTML
-            StringBuilder htmlBuilder = new StringBuilder();
-            htmlBuilder.append("<!DOCTYPE html>\n");
-            htmlBuilder.append("<html>\n<head>\n");
-            htmlBuilder.append("<meta charset=\"UTF-8\">\n");
-            htmlBuilder.append("<title>Resume</title>\n");
-            htmlBuilder.append("<style>\n");
-            htmlBuilder.append("body { font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; line-height: 1.8; padding: 40px; max-width: 1000px; margin: 0 auto; background: #f5f5f5; color: #333; }\n");
-            htmlBuilder.append("pre { white-space: pre-wrap; word-wrap: break-word; font-family: 'Segoe UI', Arial, sans-serif; background: white; padding: 30px; border-radius: 8px; box-shadow: 0 2px 10px rgba(0,0,0,0.1); font-size: 14px; line-height: 1.8; }\n");
-            htmlBuilder.append("h1 { font-size: 28px; font-weight: 700; color: #2c3e50; margin: 20px 0 10px 0; border-bottom: 3px solid #667eea; padding-bottom: 10px; }\n");
-            htmlBuilder.append("h2 { font-size: 24px; font-weight: 600; color: #34495e; margin: 18px 0 8px 0; border-bottom: 2px solid #95a5a6; padding-bottom: 8px; }\n");
-            htmlBuilder.append("h3 { font-size: 20px; font-weight: 600; color: #4a5568; margin: 15px 0 8px 0; }\n");
-            htmlBuilder.append("h4 { font-size: 18px; font-weight: 600; color: #5a6c7d; margin: 12px 0 6px 0; }\n");
-            htmlBuilder.append("p { margin: 10px 0; line-height: 1.8; }\n");
-            htmlBuilder.append("table { border-collapse: collapse; width: 100%; margin: 15px 0; background: white; box-shadow: 0 1px 3px rgba(0,0,0,0.1); }\n");
-            htmlBuilder.append("th { background: #667eea; color: white; padding: 12px; text-align: left; font-weight: 600; border: 1px solid #5568d3; }\n");
-            htmlBuilder.append("td { padding: 10px 12px; border: 1px solid #e1e8ed; }\n");
-            htmlBuilder.append("tr:nth-child(even) { background: #f8f9fa; }\n");
-            htmlBuilder.append("tr:hover { background: #e9ecef; }\n");
-            htmlBuilder.append("ul, ol { margin: 10px 0; padding-left: 30px; }\n");
-            htmlBuilder.append("li { margin: 5px 0; line-height: 1.6; }\n");
-            htmlBuilder.append("strong, b { font-weight: 600; color: #2c3e50; }\n");
-            htmlBuilder.append("em, i { font-style: italic; color: #5a6c7d; }\n");
-            htmlBuilder.append("a { color: #667eea; text-decoration: none; }\n");
-            htmlBuilder.append("a:hover { text-decoration: underline; }\n");
-            htmlBuilder.append("</style>\n");
-            htmlBuilder.append("</head>\n<body>\n");
-            htmlBuilder.append("<pre>").append(escapeHtml(textContent)).append("</pre>\n");
-            htmlBuilder.append("</body>\n</html>");
-
-            return htmlBuilder.toString();
-
-        } catch (SAXException | TikaException e) {
-            log.error("Error converting document to HTML", e);
-            if (e.getMessage() != null && e.getMessage().contains("limit")) {
-                throw new IOException("Document is too large to process (exceeds 100MB limit)", e);
+     * Count a re-upload of a known file. A resume whose conversion failed is reset to PENDING,
+     * so uploading the file again retries it instead of returning the failure.
+     */
+    private Optional<StoredUpload> registerDuplicateUpload(String contentHash) {
+        return resumeRepository.registerDuplicateUpload(contentHash).map(existing -> {
+            // Only one of concurrent re-uploads wins the reset and queues the conversion
+            if (existing.getConversionStatus() == ConversionStatus.FAILED
+                    && resumeRepository.retryFailedConversion(existing.getId())) {
+                log.info("Retrying the failed conversion of resume {}", existing.getId());
+                existing.setConversionStatus(ConversionStatus.PENDING);
+                existing.setConversionError(null);
+                return new StoredUpload(existing, true, true);
             }
-            throw new IOException("Failed to convert document: " + e.getMessage(), e);
+            return new StoredUpload(existing, true);
+        });
+    }
+
+    /**
+     * Record a conversion as FAILED without attempting it, e.g. when it could not be queued
+     */
+    public void failConversion(String id, String error) {
+        resumeRepository.updateConversion(id, ConversionStatus.FAILED, null, null, null, error, null);
+    }
+
+    /**
+     * Storage and conversion time saved by resolving duplicate uploads
+     */
+    public DedupReport getDedupReport() {
+        return resumeRepository.dedupReport();
+    }
+
+    private static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
     /**
-     * Escape HTML special characters
+     * Counts the bytes read through it, the size of a file stored as it is read
      */
-    private String escapeHtml(String text) {
-        if (text == null) return "";
-        return text.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#39;");
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Conversion progress of an uploaded resume, without loading its content
+     */
+    public Optional<ConversionJobStatus> getConversionJob(String id) {
+        return resumeRepository.findConversionStateById(id).map(ConversionJobStatus::of);
+    }
+
+    /**
+     * Open the original uploaded file of a resume for streaming
+     */
+    public InputStream openOriginalFile(Resume resume) throws IOException {
+        if (resume.getOriginalFileBlobId() == null) {
+            throw new FileNotFoundException("Original file not available for resume: " + resume.getId());
+        }
+        return blobStore.open(resume.getOriginalFileBlobId());
+    }
+
+    /**
+     * Write a byte range of the original uploaded file to the stream, without loading the file into memory
+     */
+    public void copyOriginalFile(Resume resume, long position, long length, OutputStream out) throws IOException {
+        if (resume.getOriginalFileBlobId() == null) {
+            throw new FileNotFoundException("Original file not available for resume: " + resume.getId());
+        }
+        blobStore.copyRange(resume.getOriginalFileBlobId(), position, length, out);
     }
 
     /**
@@ -149,70 +430,139 @@ public class ResumeService {
     }
 
     /**
-     * Get all resumes
+     * Get the fields HTTP validators are derived from, to answer conditional requests without loading the resume
      */
-    public List<Resume> getAllResumes() {
-        return resumeRepository.findAll();
+    public Optional<Resume> getResumeValidators(String id) {
+        return resumeRepository.findValidatorsById(id);
+    }
+
+    /**
+     * Get a resume without its HTML renditions, for pages that show the content separately
+     */
+    public Optional<Resume> getResumeMetadata(String id) {
+        return resumeRepository.findMetadataById(id);
+    }
+
+    /**
+     * Get one page of resume summaries ordered by upload date
+     * @param continuationToken token of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public ResumePage getResumePage(String continuationToken, Integer pageSize, Sort.Direction direction) {
+        return resumeRepository.findSummaryPage(null, decodeToken(continuationToken),
+                paginationConfig.resolvePageSize(pageSize), direction != null ? direction : Sort.Direction.DESC);
+    }
+
+    private static ContinuationToken decodeToken(String continuationToken) {
+        return continuationToken == null || continuationToken.isBlank() ? null : ContinuationToken.decode(continuationToken);
+    }
+
+    /**
+     * Count all resumes
+     */
+    public long countResumes() {
+        return resumeRepository.count();
     }
 
     /**
      * Delete resume by ID
      */
     public void deleteResume(String id) {
+        Optional<Resume> resume = resumeRepository.findOriginalFileBlobIdById(id);
         resumeRepository.deleteById(id);
+        htmlCache.invalidate(id);
+        resume.map(Resume::getOriginalFileBlobId).ifPresent(this::deleteBlobIfUnreferenced);
+        try {
+            searchIndex.delete(id);
+        } catch (IOException e) {
+            log.error("Failed to remove resume {} from search index", id, e);
+        }
         log.info("Resume deleted with ID: {}", id);
     }
 
     /**
-     * Mask personal information in text
-     * Only masks email addresses and phone numbers, leaves all other content as is
+     * Index a saved resume for full-text search. Failures are logged only, the index can be rebuilt from MongoDB.
      */
-    private String maskPersonalInfo(String text) {
-        if (text == null || text.isEmpty()) {
-            return text;
+    private void updateSearchIndex(Resume resume) {
+        try {
+            searchIndex.index(resume);
+        } catch (IOException e) {
+            log.error("Failed to index resume {}", resume.getId(), e);
         }
-        
-        // Mask email addresses - keep first 3 chars, then ***@mail
-        text = text.replaceAll("(?i)([a-zA-Z0-9._%+-]{3})[a-zA-Z0-9._%+-]*@[a-z0-9.-]+\\.[a-z]{2,}", "$1***@mail");
-        
-        // Mask phone numbers - keep last 4 digits, mask the rest with *
-        text = text.replaceAll("(\\+?\\(?\\d{1,3}\\)?[-.\s]?)?\\d{2,3}[-.\s]?\\d{2,3}[-.\s]?(\\d{4})", "******$2");
-        
-        return text;
     }
-    
+
     /**
-     * Get resume HTML content for viewing with optional masking of personal information
+     * Delete a blob once no resume references it anymore (content-addressed blobs may be shared)
+     */
+    private void deleteBlobIfUnreferenced(String blobId) {
+        if (resumeRepository.countByOriginalFileBlobId(blobId) > 0) {
+            return;
+        }
+        try {
+            blobStore.delete(blobId);
+        } catch (IOException e) {
+            log.warn("Failed to delete blob {}", blobId, e);
+        }
+    }
+
+    /**
+     * Get resume HTML content for viewing with optional masking of personal information.
+     * Served from the HTML cache; on a miss only the rendition asked for is read from MongoDB.
      * @param id The resume ID
      * @param maskPersonalInfo Whether to mask personal information
      * @return The HTML content with optional masking
      */
     public String getResumeHtmlContent(String id, boolean maskPersonalInfo) {
-        Optional<Resume> resumeOpt = resumeRepository.findById(id);
-        if (resumeOpt.isEmpty()) {
-            return null;
+        return CompressedHtml.decompress(getCompressedHtmlContent(id, maskPersonalInfo));
+    }
+
+    /**
+     * Same as {@link #getResumeHtmlContent(String, boolean)}, gzip compressed.
+     * The page is assembled around the stored fragment once, when it is loaded into the cache.
+     */
+    public byte[] getCompressedHtmlContent(String id, boolean maskPersonalInfo) {
+        return htmlCache.get(id, maskPersonalInfo, key -> getResumeContent(id, maskPersonalInfo)
+                .map(resume -> CompressedHtml.compress(renderHtmlContent(resume, maskPersonalInfo)))
+                .orElse(null));
+    }
+
+    /**
+     * Load a resume with only its conversion status and the HTML rendition asked for
+     */
+    public Optional<Resume> getResumeContent(String id, boolean maskPersonalInfo) {
+        if (!maskPersonalInfo) {
+            return resumeRepository.findHtmlContentById(id);
         }
-        
-        String htmlContent = resumeOpt.get().getHtmlContent();
-        
-        if (maskPersonalInfo) {
-            // Extract the content between <pre> tags to avoid breaking HTML
-            Pattern pattern = Pattern.compile("(?s)(?<=<pre>)(.*?)(?=</pre>)");
-            Matcher matcher = pattern.matcher(htmlContent);
-            StringBuffer sb = new StringBuffer();
-            
-            while (matcher.find()) {
-                String matchedText = matcher.group(1);
-                String processedText = escapeHtml(maskPersonalInfo(matchedText));
-                matcher.appendReplacement(sb, Matcher.quoteReplacement(processedText));
-            }
-            matcher.appendTail(sb);
-            htmlContent = sb.toString();
+        Optional<Resume> resume = resumeRepository.findMaskedContentById(id);
+        if (resume.isPresent() && !masker.isCurrent(resume.get())) {
+            // Not re-masked with the current rules yet, mask from the full HTML
+            return resumeRepository.findHtmlContentById(id);
         }
-        
-        return htmlContent;
+        return resume;
     }
-    
+
+    /**
+     * Render the HTML content of an already loaded resume with optional masking of personal information,
+     * so callers that hold the document do not fetch it again.
+     * The stored masked rendition is used unless it is missing or was produced by older rules.
+     */
+    public String renderHtmlContent(Resume resume, boolean maskPersonalInfo) {
+        if (!maskPersonalInfo) {
+            return htmlPage.wrap(resume.getHtml());
+        }
+        if (masker.isCurrent(resume)) {
+            return htmlPage.wrap(resume.getMaskedHtml());
+        }
+        return htmlPage.wrap(masker.mask(resume.getHtml()));
+    }
+
+    /**
+     * Version of the page shell around the stored HTML, part of the validators of rendered pages
+     */
+    public String getHtmlPageVersion() {
+        return htmlPage.version();
+    }
+
     /**
      * Get resume HTML content for viewing without masking
      */
@@ -221,174 +571,157 @@ public class ResumeService {
     }
 
     /**
-     * Search resumes by various criteria
+     * Search resumes by various criteria, returning one page of results.
+     * The criteria are compiled into a single query, so a search is one round trip.
+     * @throws IllegalArgumentException if the continuation token or a date is malformed, or a search term is rejected
+     * @throws QueryTimeoutException if the database aborted the search for exceeding the search time limit
      */
-    public List<Resume> searchResumes(ResumeSearchCriteria criteria) {
+    public ResumePage searchResumes(ResumeSearchCriteria criteria) {
         log.info("Searching resumes with criteria: {}", criteria);
+        try {
+            return search(criteria);
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof MongoExecutionTimeoutException) {
+                    log.warn("Search exceeded its time limit: {}", criteria);
+                    throw new QueryTimeoutException("Search exceeded its time limit", e);
+                }
+            }
+            throw e;
+        }
+    }
 
-        List<Resume> results = new ArrayList<>();
+    private ResumePage search(ResumeSearchCriteria criteria) {
+        ContinuationToken after = decodeToken(criteria.getContinuationToken());
+        int pageSize = paginationConfig.resolvePageSize(criteria.getPageSize());
+        Sort.Direction direction = criteria.getSortDirection() != null ? criteria.getSortDirection() : Sort.Direction.DESC;
 
         // If no criteria specified, return all resumes
         if (!hasAnyCriteria(criteria)) {
-            return resumeRepository.findAll();
+            return resumeRepository.findSummaryPage(null, after, pageSize, direction);
         }
 
-        // Try specific searches first
-        boolean hasResults = false;
-
-        // Basic text search across multiple fields - search HTML content since structured fields may not be populated
-        if (criteria.getKeyword() != null && !criteria.getKeyword().trim().isEmpty()) {
-            List<Resume> keywordResults = resumeRepository.findByHtmlContent(criteria.getKeyword());
-            log.debug("Keyword search for '{}' returned {} results", criteria.getKeyword(), keywordResults.size());
-            if (!keywordResults.isEmpty()) {
-                results.addAll(keywordResults);
-                hasResults = true;
-            }
-        }
+        List<Criteria> clauses = queryCompiler.compileClauses(criteria);
 
-        // Name search (OR logic within name fields)
-        if (criteria.getFirstName() != null && !criteria.getFirstName().trim().isEmpty()) {
-            List<Resume> nameResults = resumeRepository.findByFirstNameIgnoreCase(criteria.getFirstName());
-            log.debug("First name search for '{}' returned {} results", criteria.getFirstName(), nameResults.size());
-            if (!nameResults.isEmpty()) {
-                results.addAll(nameResults);
-                hasResults = true;
+        // Keyword searches are ranked by relevance
+        if (ResumeQueryCompiler.isRankable(criteria)) {
+            ResumePage ranked = rankedSearch(criteria, clauses, after, pageSize);
+            if (ranked != null) {
+                return ranked;
             }
         }
 
-        if (criteria.getLastName() != null && !criteria.getLastName().trim().isEmpty()) {
-            List<Resume> nameResults = resumeRepository.findByLastNameIgnoreCase(criteria.getLastName());
-            log.debug("Last name search for '{}' returned {} results", criteria.getLastName(), nameResults.size());
-            if (!nameResults.isEmpty()) {
-                results.addAll(nameResults);
-                hasResults = true;
-            }
-        }
-
-        if (criteria.getFullName() != null && !criteria.getFullName().trim().isEmpty()) {
-            List<Resume> nameResults = resumeRepository.findByFirstNameIgnoreCaseOrLastNameIgnoreCase(
-                    criteria.getFullName(), criteria.getFullName());
-            log.debug("Full name search for '{}' returned {} results", criteria.getFullName(), nameResults.size());
-            if (!nameResults.isEmpty()) {
-                results.addAll(nameResults);
-                hasResults = true;
-            }
-        }
-
-        // Contact search
-        if (criteria.getEmail() != null && !criteria.getEmail().trim().isEmpty()) {
-            List<Resume> emailResults = resumeRepository.findByEmail(criteria.getEmail());
-            if (!emailResults.isEmpty()) {
-                results.addAll(emailResults);
-                hasResults = true;
-            }
+        // If every criterion is blank, return empty results instead of all resumes
+        Criteria filter = queryCompiler.compile(criteria, clauses);
+        if (filter == null) {
+            log.info("No usable search criteria in: {}, returning empty results", criteria);
+            return ResumePage.empty();
         }
 
-        if (criteria.getPhone() != null && !criteria.getPhone().trim().isEmpty()) {
-            // Search phone in HTML content since structured phone field may not be populated
-            List<Resume> phoneResults = resumeRepository.findByHtmlContent(criteria.getPhone());
-            if (!phoneResults.isEmpty()) {
-                results.addAll(phoneResults);
-                hasResults = true;
-            }
+        ResumePage page;
+        if (criteria.getMatchMode() == ResumeSearchCriteria.MatchMode.ALL || clauses.isEmpty()) {
+            page = resumeRepository.findSummaryPage(filter, after, pageSize, direction);
+            // Results matched every clause already, no need to ask the database
+            page.getItems().forEach(summary -> summary.setMatchedCriteria(clauses.size()));
+        } else {
+            // Which clauses each result matches is evaluated in the same round trip as the page
+            page = resumeRepository.findSummaryPage(filter, clauses, after, pageSize, direction);
         }
+        log.info("Search completed. Page of {} results, more available: {}", page.getItems().size(), page.isHasMore());
+        return page;
+    }
 
-        // Location search
-        if (criteria.getCity() != null && !criteria.getCity().trim().isEmpty()) {
-            List<Resume> cityResults = resumeRepository.findByCityIgnoreCase(criteria.getCity());
-            if (!cityResults.isEmpty()) {
-                results.addAll(cityResults);
-                hasResults = true;
-            }
-        }
+    /**
+     * Summaries of every resume matching the criteria, streamed from a cursor for exports.
+     * Criteria that are absent or all blank export every resume. The stream must be closed.
+     */
+    public Stream<ResumeSummary> streamSummaries(ResumeSearchCriteria criteria) {
+        return resumeRepository.streamSummaries(exportFilter(criteria));
+    }
 
-        if (criteria.getState() != null && !criteria.getState().trim().isEmpty()) {
-            List<Resume> stateResults = resumeRepository.findByStateIgnoreCase(criteria.getState());
-            if (!stateResults.isEmpty()) {
-                results.addAll(stateResults);
-                hasResults = true;
-            }
-        }
+    /**
+     * References to the original files of every resume matching the criteria, streamed like
+     * {@link #streamSummaries(ResumeSearchCriteria)}
+     */
+    public Stream<Resume> streamOriginalFiles(ResumeSearchCriteria criteria) {
+        return resumeRepository.streamOriginalFiles(exportFilter(criteria));
+    }
 
-        // Skills search
-        if (criteria.getProgrammingLanguages() != null && !criteria.getProgrammingLanguages().isEmpty()) {
-            List<Resume> skillResults = resumeRepository.findByProgrammingLanguagesIn(criteria.getProgrammingLanguages());
-            if (!skillResults.isEmpty()) {
-                results.addAll(skillResults);
-                hasResults = true;
-            }
-        }
+    // The keyword is resolved through the search index like in an unranked search
+    private Criteria exportFilter(ResumeSearchCriteria criteria) {
+        return criteria != null && hasAnyCriteria(criteria) ? queryCompiler.compile(criteria) : null;
+    }
 
-        if (criteria.getFrameworks() != null && !criteria.getFrameworks().isEmpty()) {
-            List<Resume> skillResults = resumeRepository.findByFrameworksIn(criteria.getFrameworks());
-            if (!skillResults.isEmpty()) {
-                results.addAll(skillResults);
-                hasResults = true;
-            }
+    /**
+     * Search ranked by relevance of the keyword. Only the top-K index hits are loaded from MongoDB,
+     * then sorted by score and paged in memory. In match mode ANY, up to top-K of the most recent resumes
+     * matching only the other criteria are loaded with them in the same round trip, scored by those criteria alone.
+     *
+     * @return the page, or null if the search index cannot be read
+     */
+    private ResumePage rankedSearch(ResumeSearchCriteria criteria, List<Criteria> clauses,
+                                    ContinuationToken after, int pageSize) {
+        if (after != null && !after.isRanked()) {
+            throw new IllegalArgumentException("Invalid continuation token");
         }
 
-        // Experience search
-        if (criteria.getCompanyName() != null && !criteria.getCompanyName().trim().isEmpty()) {
-            List<Resume> expResults = resumeRepository.findByCompanyNameRegex(criteria.getCompanyName());
-            if (!expResults.isEmpty()) {
-                results.addAll(expResults);
-                hasResults = true;
-            }
+        int topK = searchIndexConfig.resolveTopK(criteria.getTopK());
+        List<SearchHit> hits;
+        try {
+            hits = searchIndex.searchRanked(criteria.getKeyword(), topK,
+                    criteria.getMinScore() != null ? criteria.getMinScore() : 0f);
+        } catch (IOException e) {
+            log.warn("Search index unavailable, falling back to unranked search", e);
+            return null;
         }
 
-        if (criteria.getJobTitle() != null && !criteria.getJobTitle().trim().isEmpty()) {
-            List<Resume> expResults = resumeRepository.findByJobTitleRegex(criteria.getJobTitle());
-            if (!expResults.isEmpty()) {
-                results.addAll(expResults);
-                hasResults = true;
-            }
+        Map<String, SearchHit> hitsById = hits.stream()
+                .collect(Collectors.toMap(SearchHit::id, Function.identity(), (a, b) -> a));
+        Criteria hitFilter = queryCompiler.compileRanked(criteria, clauses, hits);
+        Criteria others = queryCompiler.compileRankedOthers(criteria, clauses, hits);
+        List<ResumeSummary> candidates;
+        if (others != null) {
+            // Which clauses each candidate matches is evaluated in the same round trip
+            candidates = resumeRepository.findSummaries(hitFilter, others, topK, clauses);
+        } else if (hits.isEmpty()) {
+            return ResumePage.empty();
+        } else {
+            candidates = resumeRepository.findSummaries(hitFilter, hits.size());
+            // Without other criteria, or in match mode ALL, every candidate matched all of them
+            candidates.forEach(summary -> summary.setMatchedCriteria(clauses.size()));
         }
 
-        // Education search
-        if (criteria.getDegree() != null && !criteria.getDegree().trim().isEmpty()) {
-            List<Resume> eduResults = resumeRepository.findByDegreeRegex(criteria.getDegree());
-            if (!eduResults.isEmpty()) {
-                results.addAll(eduResults);
-                hasResults = true;
+        // Every other criterion a resume matches raises its score on top of the keyword relevance
+        List<ResumeSummary> matches = new ArrayList<>();
+        for (ResumeSummary summary : candidates) {
+            SearchHit hit = hitsById.get(summary.getId());
+            if (hit == null && others == null) {
+                continue;
             }
-        }
-
-        if (criteria.getInstitution() != null && !criteria.getInstitution().trim().isEmpty()) {
-            List<Resume> eduResults = resumeRepository.findByInstitutionRegex(criteria.getInstitution());
-            if (!eduResults.isEmpty()) {
-                results.addAll(eduResults);
-                hasResults = true;
+            int matchedCriteria = summary.getMatchedCriteria();
+            summary.setScore((hit != null ? hit.score() : 0f) + matchedCriteria * searchIndexConfig.getCriteriaBoost());
+            if (hit != null) {
+                summary.setMatchedFields(hit.matchedFields());
+                // The keyword counts as a matched criterion as well
+                summary.setMatchedCriteria(matchedCriteria + 1);
             }
-        }
-
-        // Date range search
-        if ((criteria.getUploadedAfter() != null && !criteria.getUploadedAfter().trim().isEmpty()) ||
-            (criteria.getUploadedBefore() != null && !criteria.getUploadedBefore().trim().isEmpty())) {
-            LocalDateTime startDate = criteria.getUploadedAfter() != null && !criteria.getUploadedAfter().trim().isEmpty() ?
-                    LocalDateTime.parse(criteria.getUploadedAfter()) : LocalDateTime.MIN;
-            LocalDateTime endDate = criteria.getUploadedBefore() != null && !criteria.getUploadedBefore().trim().isEmpty() ?
-                    LocalDateTime.parse(criteria.getUploadedBefore()) : LocalDateTime.now();
-
-            List<Resume> dateResults = resumeRepository.findByUploadedAtBetween(startDate, endDate);
-            if (!dateResults.isEmpty()) {
-                results.addAll(dateResults);
-                hasResults = true;
+            if (after == null || isAfter(summary, after)) {
+                matches.add(summary);
             }
         }
+        matches.sort(BY_RELEVANCE);
+
+        boolean hasMore = matches.size() > pageSize;
+        List<ResumeSummary> items = hasMore ? new ArrayList<>(matches.subList(0, pageSize)) : matches;
+        String nextPageToken = hasMore ? ContinuationToken.ranked(items.get(items.size() - 1)).encode() : null;
+        log.info("Ranked search completed. {} of {} candidates on this page, more available: {}",
+                items.size(), candidates.size(), hasMore);
+        return new ResumePage(items, nextPageToken, hasMore);
+    }
 
-        // If no specific searches returned results, return empty list instead of all resumes
-        if (!hasResults) {
-            log.info("No search results found for criteria: {}, returning empty results", criteria);
-            return new ArrayList<>();
-        }
-
-        // Remove duplicates and return
-        List<Resume> finalResults = results.stream()
-                .distinct()
-                .collect(Collectors.toList());
-
-        log.info("Search completed. Total results: {} (from {} initial matches)", finalResults.size(), results.size());
-        return finalResults;
+    private static boolean isAfter(ResumeSummary summary, ContinuationToken after) {
+        int byScore = Float.compare(after.score(), summary.getScore());
+        return byScore > 0 || (byScore == 0 && summary.getId().compareTo(after.id()) > 0);
     }
 
     /**
@@ -399,6 +732,7 @@ public class ResumeService {
                 criteria.getFullName() != null || criteria.getEmail() != null ||
                 criteria.getPhone() != null || criteria.getCity() != null ||
                 criteria.getState() != null || criteria.getProgrammingLanguages() != null ||
+                criteria.getAnySkill() != null ||
                 criteria.getFrameworks() != null || criteria.getCompanyName() != null ||
                 criteria.getJobTitle() != null || criteria.getDegree() != null ||
                 criteria.getInstitution() != null || criteria.getKeyword() != null ||
@@ -415,6 +749,16 @@ public class ResumeService {
         if (resume == null) {
             throw new IllegalArgumentException("Resume cannot be null");
         }
-        return resumeRepository.save(resume);
+        if (resume.getHtmlContent() != null) {
+            resume.setHtmlContentGzip(CompressedHtml.compress(ResumeHtmlPage.fragment(resume.getHtmlContent())));
+            resume.setHtmlContent(null);
+            resume.setHtmlFormat(ResumeHtmlPage.FRAGMENT_FORMAT);
+        }
+        masker.apply(resume);
+        resume.setRevision(resume.getRevision() + 1);
+        Resume savedResume = resumeRepository.save(resume);
+        htmlCache.invalidate(savedResume.getId());
+        updateSearchIndex(savedResume);
+        return savedResume;
     }
 }
@@ -0,0 +1,53 @@
+package com.kjr.rpf.service.cache;
+
+import com.kjr.rpf.config.HtmlCacheConfig;
+import com.kjr.rpf.service.ResumeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reloads the resumes viewed most often before the last shutdown into the {@link ResumeHtmlCache}
+ */
+@Component
+@Slf4j
+public class HtmlCacheWarmUpJob {
+
+    private final ResumeHtmlCache cache;
+    private final ResumeService resumeService;
+    private final HtmlCacheConfig config;
+
+    @Autowired
+    public HtmlCacheWarmUpJob(ResumeHtmlCache cache, ResumeService resumeService, HtmlCacheConfig config) {
+        this.cache = cache;
+        this.resumeService = resumeService;
+        this.config = config;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!config.isEnabled() || !config.isWarmUp()) {
+            return;
+        }
+        try {
+            List<ResumeHtmlCache.Key> keys = cache.readHotKeys();
+            int loaded = 0;
+            for (ResumeHtmlCache.Key key : keys) {
+                if (resumeService.getCompressedHtmlContent(key.id(), key.masked()) != null) {
+                    loaded++;
+                }
+            }
+            if (!keys.isEmpty()) {
+                log.info("HTML cache warmed up with {} of {} most viewed resumes", loaded, keys.size());
+            }
+        } catch (Exception e) {
+            log.error("HTML cache warm-up failed", e);
+        }
+    }
+}
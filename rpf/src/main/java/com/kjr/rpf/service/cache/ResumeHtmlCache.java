@@ -0,0 +1,145 @@
+package com.kjr.rpf.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kjr.rpf.config.HtmlCacheConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size-bounded cache of rendered resume HTML, masked and unmasked, keyed by resume id and mode.
+ * The HTML is kept gzip compressed as stored, so it can be sent to clients without recompressing.
+ * Eviction is Caffeine's W-TinyLFU, so resumes viewed over and over stay cached
+ * while one-off views of other resumes pass through.
+ * <p>
+ * Entries are weighed by their compressed size.
+ * The keys viewed most often are saved at shutdown so {@link HtmlCacheWarmUpJob} can reload them at startup.
+ */
+@Component
+@Slf4j
+public class ResumeHtmlCache {
+
+    /**
+     * Rendition of one resume
+     */
+    public record Key(String id, boolean masked) {
+    }
+
+    private final HtmlCacheConfig config;
+    private final Cache<Key, byte[]> cache;
+
+    @Autowired
+    public ResumeHtmlCache(HtmlCacheConfig config) {
+        this.config = config;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSizeMb() * 1024 * 1024)
+                .weigher((Key key, byte[] html) -> html.length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cached HTML of a resume, loaded on a miss. Nothing is cached when the loader returns null,
+     * e.g. for a resume that is not converted yet.
+     */
+    public byte[] get(String id, boolean masked, Function<Key, byte[]> loader) {
+        if (!config.isEnabled()) {
+            return loader.apply(new Key(id, masked));
+        }
+        return cache.get(new Key(id, masked), loader);
+    }
+
+    /**
+     * Drop both renditions of a resume, to be called whenever its content changes
+     */
+    public void invalidate(String id) {
+        cache.invalidateAll(List.of(new Key(id, true), new Key(id, false)));
+    }
+
+    /**
+     * Drop the masked rendition of a resume
+     */
+    public void invalidateMasked(String id) {
+        cache.invalidate(new Key(id, true));
+    }
+
+    /**
+     * Hit, miss and eviction counters and the current size of the cache
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", config.isEnabled());
+        result.put("entries", cache.estimatedSize());
+        result.put("weightBytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        result.put("maxWeightBytes", cache.policy().eviction().map(Policy.Eviction::getMaximum).orElse(0L));
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("evictedBytes", stats.evictionWeight());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * Keys saved by the last shutdown, most viewed first
+     */
+    public List<Key> readHotKeys() {
+        Path file = Path.of(config.getHotKeysFile());
+        List<Key> keys = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return keys;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t");
+                if (parts.length == 2 && keys.size() < config.getWarmUpCount()) {
+                    keys.add(new Key(parts[0], Boolean.parseBoolean(parts[1])));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read HTML cache hot keys from {}", file, e);
+        }
+        return keys;
+    }
+
+    @PreDestroy
+    public void writeHotKeys() {
+        if (!config.isEnabled() || !config.isWarmUp()) {
+            return;
+        }
+        Path file = Path.of(config.getHotKeysFile());
+        List<String> lines = cache.policy().eviction()
+                .map(eviction -> eviction.hottest(config.getWarmUpCount()).keySet().stream()
+                        .map(key -> key.id() + "\t" + key.masked())
+                        .toList())
+                .orElse(List.of());
+        if (lines.isEmpty()) {
+            // Keep the keys of the previous run, e.g. after a restart before anything was viewed
+            return;
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Could not save HTML cache hot keys to {}", file, e);
+        }
+    }
+}
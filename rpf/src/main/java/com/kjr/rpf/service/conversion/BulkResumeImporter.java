@@ -0,0 +1,317 @@
+package com.kjr.rpf.service.conversion;
+
+import com.kjr.rpf.config.BulkImportConfig;
+import com.kjr.rpf.dto.BulkUploadReport;
+import com.kjr.rpf.model.ConversionStatus;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.ResumeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports many resumes in one request, from several files and/or ZIP archives.
+ * <p>
+ * Archive entries are streamed into the blob store one after the other without being extracted to disk,
+ * converted in parallel on a pool of its own, capped by {@code app.bulk-import.concurrency} so imports
+ * cannot starve the interactive conversion queue, and saved in batches with a single insertMany each.
+ */
+@Component
+@Slf4j
+public class BulkResumeImporter {
+
+    private final ResumeService resumeService;
+    private final BulkImportConfig bulkImportConfig;
+    private final ThreadPoolExecutor executor;
+    // Conversions one import may have submitted but not yet saved, so reading the upload stays a little
+    // ahead of the pool instead of staging a whole archive in memory and in the pool's queue
+    private final int maxInFlight;
+
+    @Autowired
+    public BulkResumeImporter(ResumeService resumeService, BulkImportConfig bulkImportConfig) {
+        this.resumeService = resumeService;
+        this.bulkImportConfig = bulkImportConfig;
+        int concurrency = bulkImportConfig.resolveConcurrency();
+        // Shared by all imports, so the cap holds however many run at once
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("bulk-import-"));
+        this.maxInFlight = concurrency * 2;
+        log.info("Bulk import pool with {} threads", concurrency);
+    }
+
+    /**
+     * Store, convert and save every file and archive entry, and report the outcome of each
+     */
+    public BulkUploadReport importFiles(List<MultipartFile> files) throws IOException {
+        long start = System.currentTimeMillis();
+        Import run = new Import();
+        try {
+            for (MultipartFile file : files) {
+                if (isZip(file)) {
+                    importArchive(file, run);
+                } else {
+                    try (InputStream in = file.getInputStream()) {
+                        run.add(file.getOriginalFilename(), file.getOriginalFilename(), file.getContentType(), in);
+                    }
+                }
+            }
+        } finally {
+            // Everything staged gets saved, also when reading the request failed half way
+            run.finish();
+        }
+        run.report.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Bulk import of {} files: {} created, {} duplicates, {} rejected in {} ms",
+                run.report.getFiles().size(), run.report.getCreated(), run.report.getDuplicates(),
+                run.report.getRejected(), run.report.getElapsedMillis());
+        return run.report;
+    }
+
+    private void importArchive(MultipartFile archive, Import run) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory() || isHidden(entry.getName())) {
+                    continue;
+                }
+                String fileName = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+                String contentType = MediaTypeFactory.getMediaType(fileName)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+                run.add(archive.getOriginalFilename() + "!/" + entry.getName(), fileName, contentType,
+                        new NonClosingInputStream(zip));
+            }
+        } catch (IOException e) {
+            // A corrupt archive rejects its remaining entries, the ones read so far are kept
+            log.warn("Error reading archive {}", archive.getOriginalFilename(), e);
+            run.reject(archive.getOriginalFilename(), "Unreadable archive: " + e.getMessage());
+        }
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        return "application/zip".equals(file.getContentType())
+                || "application/x-zip-compressed".equals(file.getContentType())
+                || (name != null && name.toLowerCase().endsWith(".zip"));
+    }
+
+    // Folder metadata added by archivers, e.g. __MACOSX/._resume.pdf or .DS_Store
+    private static boolean isHidden(String entryName) {
+        String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        return entryName.startsWith("__MACOSX/") || fileName.startsWith(".");
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * State of one import: conversions in flight in upload order, and the batch waiting to be inserted
+     */
+    private class Import {
+
+        private final BulkUploadReport report = new BulkUploadReport();
+        private final Deque<Conversion> inFlight = new ArrayDeque<>();
+        private final List<Conversion> batch = new ArrayList<>();
+        private int fileCount;
+
+        void add(String reportName, String fileName, String contentType, InputStream content) {
+            if (++fileCount > bulkImportConfig.getMaxFiles()) {
+                reject(reportName, "More than " + bulkImportConfig.getMaxFiles() + " files in one upload");
+                return;
+            }
+            BulkUploadReport.FileResult result = result(reportName);
+            ResumeService.StoredUpload staged;
+            try {
+                staged = resumeService.stageUpload(new SizeLimitedInputStream(content,
+                        bulkImportConfig.getMaxFileSizeMb() * 1024 * 1024), fileName, contentType);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Error storing {}", reportName, e);
+                rejected(result, e.getMessage());
+                return;
+            }
+            if (staged.duplicate()) {
+                if (staged.retry()) {
+                    // Its earlier conversion failed, convert the existing resume again in place
+                    String resumeId = staged.resume().getId();
+                    executor.execute(() -> resumeService.convertResume(resumeId));
+                }
+                duplicate(result, staged.resume());
+                return;
+            }
+            Resume resume = staged.resume();
+            inFlight.add(new Conversion(result, resume, executor.submit(() -> resumeService.convertStaged(resume))));
+            drain(false);
+        }
+
+        void reject(String reportName, String error) {
+            rejected(result(reportName), error);
+        }
+
+        void finish() {
+            drain(true);
+            flush();
+        }
+
+        /**
+         * Move finished conversions, in order, to the insert batch; with {@code all} wait for every one,
+         * otherwise wait for the oldest ones while the in-flight limit is reached
+         */
+        private void drain(boolean all) {
+            while (!inFlight.isEmpty()
+                    && (all || inFlight.size() >= maxInFlight || inFlight.peek().future().isDone())) {
+                Conversion conversion = inFlight.poll();
+                awaitConversion(conversion);
+                batch.add(conversion);
+                if (batch.size() >= bulkImportConfig.getBatchSize()) {
+                    flush();
+                }
+            }
+        }
+
+        private void awaitConversion(Conversion conversion) {
+            // The conversion updates the staged resume, it is only inserted once that is done
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    conversion.future().get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    log.error("Bulk conversion of {} failed", conversion.result().getFileName(), e.getCause());
+                    break;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ResumeService.StoredUpload> stored = resumeService.insertStaged(
+                    batch.stream().map(Conversion::resume).toList());
+            for (int i = 0; i < stored.size(); i++) {
+                BulkUploadReport.FileResult result = batch.get(i).result();
+                Resume resume = stored.get(i).resume();
+                if (stored.get(i).duplicate()) {
+                    duplicate(result, resume);
+                    continue;
+                }
+                result.setOutcome(BulkUploadReport.Outcome.CREATED);
+                result.setResumeId(resume.getId());
+                result.setConversionStatus(resume.getConversionStatus());
+                result.setError(resume.getConversionError());
+                report.setCreated(report.getCreated() + 1);
+                if (resume.getConversionStatus() == ConversionStatus.COMPLETED) {
+                    report.setConverted(report.getConverted() + 1);
+                } else if (resume.getConversionStatus() == ConversionStatus.FAILED) {
+                    report.setConversionFailed(report.getConversionFailed() + 1);
+                }
+            }
+            batch.clear();
+        }
+
+        private void rejected(BulkUploadReport.FileResult result, String error) {
+            result.setOutcome(BulkUploadReport.Outcome.REJECTED);
+            result.setError(error);
+            report.setRejected(report.getRejected() + 1);
+        }
+
+        private void duplicate(BulkUploadReport.FileResult result, Resume existing) {
+            result.setOutcome(BulkUploadReport.Outcome.DUPLICATE);
+            result.setResumeId(existing.getId());
+            result.setConversionStatus(ConversionStatus.of(existing));
+            report.setDuplicates(report.getDuplicates() + 1);
+        }
+
+        private BulkUploadReport.FileResult result(String reportName) {
+            BulkUploadReport.FileResult result = new BulkUploadReport.FileResult();
+            result.setFileName(reportName);
+            report.getFiles().add(result);
+            return result;
+        }
+    }
+
+    private record Conversion(BulkUploadReport.FileResult result, Resume resume, Future<?> future) {
+    }
+
+    /**
+     * Leaves the archive open when the store of one of its entries closes the entry's stream
+     */
+    private static final class NonClosingInputStream extends FilterInputStream {
+
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Fails once more than the allowed number of bytes was read, so an archive entry
+     * (whose declared size cannot be trusted) cannot fill the blob store
+     */
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+
+        SizeLimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int bytes) throws IOException {
+            count += bytes;
+            if (count > maxBytes) {
+                throw new IOException("File exceeds the maximum size of " + maxBytes / (1024 * 1024) + "MB");
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.kjr.rpf.service.conversion;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * SAX handler writing the text of a document HTML-escaped straight to a {@link Writer},
+ * without buffering the extracted text itself.
+ * Fails once more than the given number of characters has been written.
+ */
+public class HtmlEscapingContentHandler extends DefaultHandler {
+
+    private final Writer writer;
+    private final long maxLength;
+    private long length;
+
+    /**
+     * @param maxLength maximum number of text characters (before escaping), or -1 for no limit
+     */
+    public HtmlEscapingContentHandler(Writer writer, long maxLength) {
+        this.writer = writer;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        write(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        write(ch, start, length);
+    }
+
+    /**
+     * Number of text characters written so far
+     */
+    public long getLength() {
+        return length;
+    }
+
+    private void write(char[] ch, int start, int count) throws SAXException {
+        if (maxLength >= 0 && length + count > maxLength) {
+            throw new SAXException("Document text exceeds the limit of " + maxLength + " characters");
+        }
+        length += count;
+        try {
+            // Copy runs of plain characters in one call, replace the few that need escaping
+            int end = start + count;
+            int run = start;
+            for (int i = start; i < end; i++) {
+                String entity = entity(ch[i]);
+                if (entity != null) {
+                    writer.write(ch, run, i - run);
+                    writer.write(entity);
+                    run = i + 1;
+                }
+            }
+            writer.write(ch, run, end - run);
+        } catch (IOException e) {
+            throw new SAXException("Error writing HTML", e);
+        }
+    }
+
+    private static String entity(char c) {
+        return switch (c) {
+            case '&' -> "&amp;";
+            case '<' -> "&lt;";
+            case '>' -> "&gt;";
+            case '"' -> "&quot;";
+            case '\'' -> "&#39;";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.kjr.rpf.service.conversion;
+
+import com.kjr.rpf.config.ConversionConfig;
+import com.kjr.rpf.model.ConversionStatus;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.ResumeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs resume conversions off the request threads on a bounded pool.
+ * When the queue is full new uploads are rejected instead of piling up.
+ */
+@Component
+@Slf4j
+public class ResumeConversionQueue {
+
+    private static final long RECOVERY_RETRY_MILLIS = 1000;
+
+    private final ResumeService resumeService;
+    private final MongoTemplate mongoTemplate;
+    private final ConversionConfig conversionConfig;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public ResumeConversionQueue(ResumeService resumeService, MongoTemplate mongoTemplate,
+                                 ConversionConfig conversionConfig) {
+        this.resumeService = resumeService;
+        this.mongoTemplate = mongoTemplate;
+        this.conversionConfig = conversionConfig;
+        int poolSize = conversionConfig.resolvePoolSize();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, conversionConfig.getQueueCapacity())),
+                new CustomizableThreadFactory("resume-conversion-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Resume conversion pool with {} threads and a queue of {}", poolSize, conversionConfig.getQueueCapacity());
+    }
+
+    /**
+     * Store an upload as a PENDING resume and queue its conversion.
+     * Re-uploads of a known file return the existing resume, and queue its conversion again if it failed.
+     * @throws RejectedExecutionException if the queue is full, nothing is stored in that case
+     */
+    public Resume upload(MultipartFile file) throws IOException {
+        if (!hasCapacity()) {
+            throw new RejectedExecutionException("Conversion queue is full");
+        }
+        ResumeService.StoredUpload stored = resumeService.storeUpload(file);
+        Resume resume = stored.resume();
+        if (stored.duplicate() && !stored.retry()) {
+            // Already converted, or queued by the earlier upload
+            return resume;
+        }
+        try {
+            submit(resume.getId());
+        } catch (RejectedExecutionException e) {
+            // Lost the race for the last queue slot
+            if (stored.retry()) {
+                // Still FAILED, so the next upload of the file retries it
+                resumeService.failConversion(resume.getId(), "Conversion queue is full");
+            } else {
+                resumeService.deleteResume(resume.getId());
+            }
+            throw e;
+        }
+        return resume;
+    }
+
+    /**
+     * Queue the conversion of a stored resume
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public void submit(String resumeId) {
+        executor.execute(() -> resumeService.convertResume(resumeId));
+    }
+
+    public boolean hasCapacity() {
+        return executor.getQueue().remainingCapacity() > 0;
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Re-queue conversions that were pending or running when the application stopped
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (!conversionConfig.isRecoverOnStartup()) {
+            return;
+        }
+        try {
+            Query query = new Query(Criteria.where("conversionStatus")
+                    .in(ConversionStatus.PENDING.name(), ConversionStatus.PROCESSING.name()));
+            query.fields().include("_id");
+            List<String> ids;
+            try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Resume.class))) {
+                ids = documents.map(document -> document.getObjectId("_id").toHexString()).toList();
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            log.info("Recovering {} interrupted resume conversions", ids.size());
+            for (String id : ids) {
+                submitWhenPossible(id);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Resume conversion recovery failed", e);
+        }
+    }
+
+    private void submitWhenPossible(String resumeId) throws InterruptedException {
+        while (true) {
+            try {
+                submit(resumeId);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Leave room for uploads, recovered jobs wait for free slots
+                Thread.sleep(RECOVERY_RETRY_MILLIS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Jobs still queued keep their PENDING status and are recovered on the next start
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
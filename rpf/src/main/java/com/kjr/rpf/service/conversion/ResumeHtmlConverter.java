@@ -0,0 +1,105 @@
+package com.kjr.rpf.service.conversion;
+
+import com.kjr.rpf.config.ConversionConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Converts uploaded documents to the HTML page stored with a resume, using the shared Tika parser
+ */
+@Component
+@Slf4j
+public class ResumeHtmlConverter {
+
+    private static final String WARM_UP_SAMPLES = "classpath:tika-warmup/*";
+
+    // The stored HTML is a body fragment, ResumeHtmlPage adds the page shell and stylesheet when rendering
+    private static final String HTML_FRAGMENT_START = "<pre>";
+    private static final String HTML_FRAGMENT_END = "</pre>";
+    private static final int INITIAL_HTML_CAPACITY = 64 * 1024;
+
+    private final Parser parser;
+    private final ConversionConfig conversionConfig;
+
+    @Autowired
+    public ResumeHtmlConverter(Parser documentParser, ConversionConfig conversionConfig) {
+        this.parser = documentParser;
+        this.conversionConfig = conversionConfig;
+    }
+
+    /**
+     * Stream a document through Apache Tika into an HTML body fragment.
+     * The text is escaped and appended to the fragment as it is extracted, without a separate copy of the text.
+     * The fragment itself is built in memory, as masking, field extraction and the search index all need it
+     * as a whole; its size is bounded by {@code app.conversion.max-text-length}.
+     */
+    public String convert(InputStream in) throws IOException {
+        StringWriter html = new StringWriter(INITIAL_HTML_CAPACITY);
+        html.write(HTML_FRAGMENT_START);
+        parse(in, html);
+        html.write(HTML_FRAGMENT_END);
+        return html.toString();
+    }
+
+    private void parse(InputStream in, Writer out) throws IOException {
+        try (InputStream inputStream = TikaInputStream.get(in)) {
+            HtmlEscapingContentHandler handler = new HtmlEscapingContentHandler(out, conversionConfig.getMaxTextLength());
+
+            // Parse document, only the body text reaches the handler
+            parser.parse(inputStream, new BodyContentHandler(handler), new Metadata(), new ParseContext());
+
+        } catch (SAXException | TikaException e) {
+            log.error("Error converting document to HTML", e);
+            if (e.getMessage() != null && e.getMessage().contains("limit")) {
+                throw new IOException("Document is too large to process (exceeds "
+                        + conversionConfig.getMaxTextLength() + " characters of text)", e);
+            }
+            throw new IOException("Failed to convert document: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse the bundled sample documents before the server accepts requests,
+     * so class loading and JIT compilation are not paid for by the first uploads
+     */
+    @PostConstruct
+    public void warmUp() {
+        if (!conversionConfig.isWarmUp()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int parsed = 0;
+        try {
+            Resource[] samples = new PathMatchingResourcePatternResolver().getResources(WARM_UP_SAMPLES);
+            for (int i = 0; i < conversionConfig.getWarmUpIterations(); i++) {
+                for (Resource sample : samples) {
+                    try (InputStream in = sample.getInputStream()) {
+                        parse(in, Writer.nullWriter());
+                        parsed++;
+                    } catch (IOException e) {
+                        log.warn("Warm-up failed for {}", sample.getFilename(), e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list warm-up samples", e);
+        }
+        log.info("Document parser warmed up with {} parses in {} ms", parsed, System.currentTimeMillis() - start);
+    }
+}
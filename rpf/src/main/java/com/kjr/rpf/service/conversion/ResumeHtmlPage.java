@@ -0,0 +1,81 @@
+package com.kjr.rpf.service.conversion;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+/**
+ * Page shell around the stored HTML of a resume.
+ * Converted resumes are stored as a body fragment; the head, with a link to the
+ * fingerprinted stylesheet instead of an inline one, is added when the page is rendered.
+ */
+@Component
+public class ResumeHtmlPage {
+
+    /**
+     * Value of Resume.htmlFormat for HTML stored as a body fragment
+     */
+    public static final int FRAGMENT_FORMAT = 2;
+
+    private static final String STYLESHEET = "/css/resume.css";
+
+    private final ResourceUrlProvider resourceUrlProvider;
+    private volatile String stylesheetUrl;
+
+    @Autowired
+    public ResumeHtmlPage(ResourceUrlProvider resourceUrlProvider) {
+        this.resourceUrlProvider = resourceUrlProvider;
+    }
+
+    /**
+     * The complete page for a stored fragment. Full pages stored before fragments pass through unchanged.
+     */
+    public String wrap(String fragment) {
+        if (fragment == null || isPage(fragment)) {
+            return fragment;
+        }
+        return "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>Resume</title>\n"
+                + "<link rel=\"stylesheet\" href=\"" + stylesheetUrl() + "\">\n"
+                + "</head>\n<body>\n" + fragment + "\n</body>\n</html>";
+    }
+
+    /**
+     * Changes whenever the shell or the stylesheet changes, for the validators of rendered pages
+     */
+    public String version() {
+        return Integer.toHexString(stylesheetUrl().hashCode());
+    }
+
+    /**
+     * The body of a full page, or the HTML itself if it is a fragment already
+     */
+    public static String fragment(String html) {
+        if (html == null || !isPage(html)) {
+            return html;
+        }
+        int bodyStart = html.indexOf("<body>");
+        int bodyEnd = html.lastIndexOf("</body>");
+        if (bodyStart < 0 || bodyEnd < bodyStart) {
+            return html;
+        }
+        return html.substring(bodyStart + "<body>".length(), bodyEnd).strip();
+    }
+
+    private static boolean isPage(String html) {
+        return html.regionMatches(true, 0, "<!DOCTYPE", 0, "<!DOCTYPE".length())
+                || html.regionMatches(true, 0, "<html", 0, "<html".length());
+    }
+
+    private String stylesheetUrl() {
+        String url = stylesheetUrl;
+        if (url == null) {
+            // The content hash is resolved once, the stylesheet only changes with a new build
+            url = resourceUrlProvider.getForLookupPath(STYLESHEET);
+            if (url == null) {
+                return STYLESHEET;
+            }
+            stylesheetUrl = url;
+        }
+        return url;
+    }
+}
@@ -0,0 +1,86 @@
+package com.kjr.rpf.service.extraction;
+
+import com.kjr.rpf.config.ExtractionConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Normalized forms of email addresses and phone numbers, stored in {@code Resume.contactTokens}
+ * and compared by equality, so differently formatted numbers and addresses find each other.
+ * <p>
+ * Emails become {@code email:<lower-cased address>}, phone numbers {@code tel:+<country code><number>}:
+ * "+1 (555) 123-4567", "1-555-123-4567" and "5551234567" are all {@code tel:+15551234567}
+ * with the default country code 1.
+ */
+@Component
+public class ContactTokens {
+
+    public static final String EMAIL_PREFIX = "email:";
+    public static final String PHONE_PREFIX = "tel:";
+
+    // Fewer digits is a fragment of a number, more is longer than any E.164 number
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final int MAX_PHONE_DIGITS = 15;
+    private static final int NATIONAL_NUMBER_DIGITS = 10;
+
+    private final String defaultCountryCode;
+
+    @Autowired
+    public ContactTokens(ExtractionConfig extractionConfig) {
+        this(extractionConfig.getDefaultCountryCode());
+    }
+
+    public ContactTokens(String defaultCountryCode) {
+        this.defaultCountryCode = defaultCountryCode.replaceAll("\\D", "");
+    }
+
+    /**
+     * Token of an email address, or null if the value is not one
+     */
+    public String email(String email) {
+        String address = email.strip().toLowerCase(Locale.ROOT);
+        int at = address.indexOf('@');
+        if (at <= 0 || at == address.length() - 1 || address.indexOf(' ') >= 0) {
+            return null;
+        }
+        return EMAIL_PREFIX + address;
+    }
+
+    /**
+     * Token of a phone number as written anywhere, or null if it has too few or too many digits.
+     * Numbers without an international prefix ("+" or "00") get the default country code;
+     * a national trunk prefix 0 is dropped.
+     */
+    public String phone(String phone) {
+        String value = phone.strip();
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() < MIN_PHONE_DIGITS || digits.length() > MAX_PHONE_DIGITS + 2) {
+            return null;
+        }
+
+        String number;
+        if (value.startsWith("+")) {
+            number = digits.toString();
+        } else if (digits.indexOf("00") == 0) {
+            number = digits.substring(2);
+        } else if (digits.length() > NATIONAL_NUMBER_DIGITS && digits.indexOf(defaultCountryCode) == 0) {
+            number = digits.toString();
+        } else if (digits.charAt(0) == '0') {
+            number = defaultCountryCode + digits.substring(1);
+        } else {
+            number = defaultCountryCode + digits;
+        }
+        if (number.length() > MAX_PHONE_DIGITS) {
+            return null;
+        }
+        return PHONE_PREFIX + "+" + number;
+    }
+}
@@ -0,0 +1,110 @@
+package com.kjr.rpf.service.extraction;
+
+import com.kjr.rpf.config.ExtractionConfig;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.repository.ResumeRepository;
+import com.kjr.rpf.service.search.ResumeSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Extracts the structured fields of converted resumes that have none yet or were extracted by older rules,
+ * and re-indexes them so the full-text index sees the new fields
+ */
+@Component
+@Slf4j
+public class ExtractionBackfillJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final ResumeRepository resumeRepository;
+    private final ResumeFieldExtractor fieldExtractor;
+    private final ResumeSearchIndex searchIndex;
+    private final ExtractionConfig extractionConfig;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Autowired
+    public ExtractionBackfillJob(MongoTemplate mongoTemplate, ResumeRepository resumeRepository,
+                                 ResumeFieldExtractor fieldExtractor, ResumeSearchIndex searchIndex,
+                                 ExtractionConfig extractionConfig) {
+        this.mongoTemplate = mongoTemplate;
+        this.resumeRepository = resumeRepository;
+        this.fieldExtractor = fieldExtractor;
+        this.searchIndex = searchIndex;
+        this.extractionConfig = extractionConfig;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!extractionConfig.isBackfillOnStartup()) {
+            return;
+        }
+        try {
+            if (mongoTemplate.exists(outdated(), Resume.class)) {
+                backfill();
+            }
+        } catch (Exception e) {
+            log.error("Field extraction backfill failed", e);
+        }
+    }
+
+    /**
+     * Extract the fields of all converted resumes whose fields are missing or outdated
+     * @return the number of updated resumes, or -1 if the job is already running
+     */
+    public int backfill() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Field extraction backfill already running");
+            return -1;
+        }
+        int extracted = 0;
+        try {
+            Query query = outdated();
+            query.fields().include("_id", "uploadedAt", "htmlContentGzip", "htmlContent");
+            query.cursorBatchSize(16);
+
+            try (Stream<Resume> resumes = mongoTemplate.stream(query, Resume.class)) {
+                for (Resume resume : (Iterable<Resume>) resumes::iterator) {
+                    try {
+                        fieldExtractor.extract(resume);
+                    } catch (RuntimeException e) {
+                        log.error("Error extracting fields of resume {}", resume.getId(), e);
+                        continue;
+                    }
+                    if (!resumeRepository.updateExtractedFields(resume.getId(), resume)) {
+                        continue;
+                    }
+                    extracted++;
+                    try {
+                        searchIndex.index(resume);
+                    } catch (IOException e) {
+                        log.error("Failed to index resume {}", resume.getId(), e);
+                    }
+                }
+            }
+            log.info("Field extraction backfill completed, {} resumes extracted with version {}", extracted,
+                    ResumeFieldExtractor.VERSION);
+            return extracted;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static Query outdated() {
+        return Query.query(new Criteria().andOperator(
+                new Criteria().orOperator(Criteria.where("htmlContentGzip").exists(true),
+                        Criteria.where("htmlContent").ne(null)),
+                Criteria.where("extractionVersion").ne(ResumeFieldExtractor.VERSION)));
+    }
+}
@@ -0,0 +1,477 @@
+package com.kjr.rpf.service.extraction;
+
+import com.kjr.rpf.model.Education;
+import com.kjr.rpf.model.Experience;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.search.ResumeText;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fills the structured fields of a resume (name, contact details, location, summary, skills,
+ * experience and education) from the plain text of its converted HTML.
+ * <p>
+ * The text is split into sections at recognized headings ("Experience", "Education", ...);
+ * contact details are recognized anywhere, the name and location in the header above the first section,
+ * and skills are matched against the {@link SkillsDictionary}. Every email address and phone number in the text
+ * is also stored normalized as a {@link ContactTokens contact token}.
+ */
+@Component
+public class ResumeFieldExtractor {
+
+    /**
+     * Stored on every resume with the extracted fields; raise it when the rules change so the backfill runs again
+     */
+    public static final String VERSION = "3";
+
+    enum Section {
+        HEADER, SUMMARY, EXPERIENCE, EDUCATION, SKILLS, OTHER
+    }
+
+    private static final Map<String, Section> HEADINGS = Map.ofEntries(
+            Map.entry("summary", Section.SUMMARY),
+            Map.entry("professional summary", Section.SUMMARY),
+            Map.entry("career summary", Section.SUMMARY),
+            Map.entry("profile", Section.SUMMARY),
+            Map.entry("professional profile", Section.SUMMARY),
+            Map.entry("objective", Section.SUMMARY),
+            Map.entry("career objective", Section.SUMMARY),
+            Map.entry("about me", Section.SUMMARY),
+            Map.entry("experience", Section.EXPERIENCE),
+            Map.entry("work experience", Section.EXPERIENCE),
+            Map.entry("professional experience", Section.EXPERIENCE),
+            Map.entry("employment", Section.EXPERIENCE),
+            Map.entry("employment history", Section.EXPERIENCE),
+            Map.entry("work history", Section.EXPERIENCE),
+            Map.entry("career history", Section.EXPERIENCE),
+            Map.entry("education", Section.EDUCATION),
+            Map.entry("education and training", Section.EDUCATION),
+            Map.entry("academic background", Section.EDUCATION),
+            Map.entry("academic qualifications", Section.EDUCATION),
+            Map.entry("skills", Section.SKILLS),
+            Map.entry("technical skills", Section.SKILLS),
+            Map.entry("key skills", Section.SKILLS),
+            Map.entry("core competencies", Section.SKILLS),
+            Map.entry("technologies", Section.SKILLS),
+            Map.entry("projects", Section.OTHER),
+            Map.entry("certifications", Section.OTHER),
+            Map.entry("awards", Section.OTHER),
+            Map.entry("publications", Section.OTHER),
+            Map.entry("languages", Section.OTHER),
+            Map.entry("interests", Section.OTHER),
+            Map.entry("references", Section.OTHER),
+            Map.entry("volunteer experience", Section.OTHER));
+
+    private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}");
+    private static final Pattern PHONE = Pattern.compile(
+            "(?<![\\w+/.-])(\\+?\\d{1,3}[\\s.-]?)?(\\(\\d{2,4}\\)|\\d{2,4})[\\s.-]?\\d{3,4}[\\s.-]?\\d{3,4}(?![\\w-])");
+    private static final Pattern LINKEDIN = Pattern.compile(
+            "(?i)(?:https?://)?(?:[a-z]{2,3}\\.)?linkedin\\.com/(?:in|pub)/[A-Za-z0-9_%-]+/?");
+    private static final Pattern WEBSITE = Pattern.compile(
+            "(?i)\\b(?:https?://|www\\.)[A-Za-z0-9.-]+\\.[A-Za-z]{2,}(?:/[^\\s)]*)?");
+    private static final Pattern CITY_STATE = Pattern.compile(
+            "\\b([A-Z][A-Za-z.'-]+(?: [A-Z][A-Za-z.'-]+){0,2}),\\s*([A-Z]{2})\\b(?:\\s*\\d{5}(?:-\\d{4})?)?(?:,?\\s*(USA|United States|US))?");
+    private static final Set<String> US_STATES = Set.of(
+            "AL", "AK", "AZ", "AR", "CA", "CO", "CT", "DE", "FL", "GA", "HI", "ID", "IL", "IN", "IA", "KS", "KY",
+            "LA", "ME", "MD", "MA", "MI", "MN", "MS", "MO", "MT", "NE", "NV", "NH", "NJ", "NM", "NY", "NC", "ND",
+            "OH", "OK", "OR", "PA", "RI", "SC", "SD", "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY", "DC");
+
+    private static final String MONTH = "(?:Jan(?:uary)?|Feb(?:ruary)?|Mar(?:ch)?|Apr(?:il)?|May|June?|July?|Aug(?:ust)?"
+            + "|Sep(?:t(?:ember)?)?|Oct(?:ober)?|Nov(?:ember)?|Dec(?:ember)?)\\.?";
+    private static final String DATE = "(?:" + MONTH + "\\s+\\d{4}|\\d{1,2}/\\d{4}|\\d{4})";
+    private static final Pattern DATE_RANGE = Pattern.compile(
+            "(?i)(?<![\\w/.-])(" + DATE + ")\\s*(?:-|–|—|to|until)\\s*(" + DATE + "|present|current|now|today)(?![\\w/])");
+    private static final Pattern YEAR = Pattern.compile("\\b(19[5-9]\\d|20\\d\\d)\\b");
+    private static final Pattern MONTH_NAME = Pattern.compile("(?i)^" + MONTH);
+
+    private static final Pattern DEGREE = Pattern.compile(
+            "\\b(Bachelor(?:'s)?(?: of [A-Z][a-z]+)?|Master(?:'s)?(?: of [A-Z][a-z]+)?|Doctor(?:ate)?(?: of [A-Z][a-z]+)?"
+            + "|Ph\\.?D\\.?|MBA|B\\.?\\s?Sc\\.?|M\\.?\\s?Sc\\.?|B\\.S\\.|M\\.S\\.|BS|MS|B\\.A\\.|M\\.A\\.|BA|MA"
+            + "|B\\.?\\s?Tech|M\\.?\\s?Tech|B\\.E\\.|M\\.E\\.|Associate(?:'s)?(?: of [A-Z][a-z]+)?|Diploma)(?!\\w)");
+    // Right after the degree: "B.S. Computer Science", "Bachelor of Science in Physics"
+    private static final Pattern MAJOR = Pattern.compile("^\\s*(?:(?:in|of)\\s+)?([A-Z][A-Za-z&]+(?:\\s+(?:and\\s+|&\\s+)?[A-Z][A-Za-z&]+){0,4})");
+    private static final Pattern INSTITUTION = Pattern.compile(
+            "([A-Z][A-Za-z.&'-]*(?:\\s+(?:of|and|&|the|[A-Z][A-Za-z.&'-]*))*\\s+(?:University|College|Institute|School|Academy)"
+            + "(?:\\s+of(?:\\s+[A-Z][A-Za-z.&'-]*)+)?|(?:University|College|Institute)\\s+of(?:\\s+[A-Z][A-Za-z.&'-]*)+)");
+    private static final Pattern GPA = Pattern.compile("(?i)\\bGPA\\s*[:\\-]?\\s*([0-4]\\.\\d{1,2})");
+
+    private static final Pattern BULLET = Pattern.compile("^[•·▪◦*\\-–]\\s*");
+    private static final Pattern TITLE_COMPANY = Pattern.compile("\\s+(?:at|@)\\s+|\\s+[|–—-]\\s+|,\\s+");
+    private static final Pattern AT_COMPANY = Pattern.compile("\\s+(?:at|@)\\s+");
+    private static final int MAX_TITLE_LENGTH = 60;
+
+    private static final int MAX_SUMMARY_LENGTH = 1000;
+    private static final int MAX_RESPONSIBILITIES = 20;
+
+    private final SkillsDictionary skillsDictionary;
+    private final ContactTokens contactTokens;
+
+    @Autowired
+    public ResumeFieldExtractor(SkillsDictionary skillsDictionary, ContactTokens contactTokens) {
+        this.skillsDictionary = skillsDictionary;
+        this.contactTokens = contactTokens;
+    }
+
+    /**
+     * Extract the fields from the stored HTML of the resume and set them on it, replacing earlier values
+     */
+    public void extract(Resume resume) {
+        extract(ResumeText.fromHtml(resume.getHtml()), resume);
+    }
+
+    /**
+     * Extract the fields from the plain text of a resume and set them on it, replacing earlier values
+     */
+    public void extract(String text, Resume resume) {
+        Map<Section, List<String>> sections = sections(text);
+        List<String> header = sections.getOrDefault(Section.HEADER, List.of());
+
+        resume.setEmail(first(EMAIL, text));
+        resume.setPhone(phone(text));
+        resume.setLinkedinUrl(first(LINKEDIN, text));
+        resume.setWebsiteUrl(website(text));
+        resume.setContactTokens(nullIfEmpty(contactTokens(text)));
+
+        String[] name = name(header);
+        resume.setFirstName(name != null ? name[0] : null);
+        resume.setLastName(name != null ? name[1] : null);
+        location(header, resume);
+
+        List<String> summary = sections.get(Section.SUMMARY);
+        resume.setProfessionalSummary(summary != null ? summary(summary) : null);
+        resume.setSkills(skillsDictionary.match(text));
+        resume.setSkillIds(SkillsDictionary.ids(resume.getSkills()));
+        resume.setExperience(nullIfEmpty(experience(sections.getOrDefault(Section.EXPERIENCE, List.of()))));
+        resume.setEducation(nullIfEmpty(education(sections.getOrDefault(Section.EDUCATION, List.of()))));
+        resume.setExtractionVersion(VERSION);
+    }
+
+    // ---- Sections ----
+
+    /**
+     * Non-blank lines of the text by section, everything above the first heading is the header
+     */
+    static Map<Section, List<String>> sections(String text) {
+        Map<Section, List<String>> sections = new EnumMap<>(Section.class);
+        Section current = Section.HEADER;
+        for (String line : text.split("\\R")) {
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            Section heading = heading(line);
+            if (heading != null) {
+                current = heading;
+                continue;
+            }
+            sections.computeIfAbsent(current, section -> new ArrayList<>()).add(line);
+        }
+        return sections;
+    }
+
+    private static Section heading(String line) {
+        if (line.length() > 40) {
+            return null;
+        }
+        String normalized = line.toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z& ]", " ")
+                .replace("&", "and")
+                .replaceAll("\\s+", " ")
+                .strip();
+        return HEADINGS.get(normalized);
+    }
+
+    // ---- Contact details ----
+
+    private static String first(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    private static String phone(String text) {
+        Matcher matcher = PHONE.matcher(text);
+        while (matcher.find()) {
+            String candidate = matcher.group().strip();
+            if (isPhone(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPhone(String candidate) {
+        long digits = candidate.chars().filter(Character::isDigit).count();
+        // Date ranges such as 2015-2019 have fewer digits, long ids have more
+        return digits >= 10 && digits <= 15 && !DATE_RANGE.matcher(candidate).matches();
+    }
+
+    /**
+     * Tokens of every email address and phone number in the text, each once
+     */
+    private List<String> contactTokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        Matcher email = EMAIL.matcher(text);
+        while (email.find()) {
+            addIfPresent(tokens, contactTokens.email(email.group()));
+        }
+        Matcher phone = PHONE.matcher(text);
+        while (phone.find()) {
+            String candidate = phone.group().strip();
+            if (isPhone(candidate)) {
+                addIfPresent(tokens, contactTokens.phone(candidate));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static void addIfPresent(Set<String> tokens, String token) {
+        if (token != null) {
+            tokens.add(token);
+        }
+    }
+
+    private static String website(String text) {
+        Matcher matcher = WEBSITE.matcher(text);
+        while (matcher.find()) {
+            String url = matcher.group().replaceAll("[.,;]+$", "");
+            if (!url.toLowerCase(Locale.ROOT).contains("linkedin.com")) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    // ---- Header ----
+
+    /**
+     * First and last name from the first header line made of two to four capitalized words
+     */
+    private static String[] name(List<String> header) {
+        for (String line : header.subList(0, Math.min(5, header.size()))) {
+            String candidate = line.split("\\s+[|•·–—-]\\s+|,")[0].strip();
+            String[] words = candidate.split("\\s+");
+            if (words.length < 2 || words.length > 4 || candidate.chars().anyMatch(c -> Character.isDigit(c) || c == '@')) {
+                continue;
+            }
+            boolean capitalized = true;
+            for (String word : words) {
+                capitalized &= Character.isUpperCase(word.charAt(0)) && word.chars().allMatch(c -> Character.isLetter(c) || c == '.' || c == '\'' || c == '-');
+            }
+            if (capitalized) {
+                return new String[]{titleCase(words[0]), titleCase(words[words.length - 1])};
+            }
+        }
+        return null;
+    }
+
+    private static String titleCase(String word) {
+        if (word.length() > 1 && word.equals(word.toUpperCase(Locale.ROOT))) {
+            return word.charAt(0) + word.substring(1).toLowerCase(Locale.ROOT);
+        }
+        return word;
+    }
+
+    private static void location(List<String> header, Resume resume) {
+        resume.setCity(null);
+        resume.setState(null);
+        resume.setCountry(null);
+        for (String line : header) {
+            Matcher matcher = CITY_STATE.matcher(line);
+            while (matcher.find()) {
+                if (US_STATES.contains(matcher.group(2))) {
+                    resume.setCity(matcher.group(1));
+                    resume.setState(matcher.group(2));
+                    resume.setCountry("USA");
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String summary(List<String> lines) {
+        String summary = String.join(" ", lines).replaceAll("\\s+", " ").strip();
+        if (summary.length() > MAX_SUMMARY_LENGTH) {
+            int cut = summary.lastIndexOf(' ', MAX_SUMMARY_LENGTH);
+            summary = summary.substring(0, cut > 0 ? cut : MAX_SUMMARY_LENGTH) + "...";
+        }
+        return summary.isEmpty() ? null : summary;
+    }
+
+    // ---- Experience ----
+
+    /**
+     * One position per date range; title and company come from the rest of that line or the line above it.
+     * A heading naming only the company ("Acme Corp, Springfield, IL") takes the title from a short line below it.
+     */
+    private static List<Experience> experience(List<String> lines) {
+        List<Experience> positions = new ArrayList<>();
+        Experience current = null;
+        String previous = null;
+        String companyHeading = null;
+        for (String line : lines) {
+            Matcher range = DATE_RANGE.matcher(line);
+            if (range.find()) {
+                String rest = (line.substring(0, range.start()) + " " + line.substring(range.end()))
+                        .replaceAll("[|,()–—-]+\\s*$", "").replaceAll("^\\s*[|,()–—-]+", "").strip();
+                String heading = !rest.isEmpty() ? rest : previous;
+                if (current != null && heading != null && heading == previous) {
+                    // The line above was taken as a responsibility of the previous position
+                    List<String> responsibilities = current.getResponsibilitiesAndAchievements();
+                    int last = responsibilities.lastIndexOf(previous);
+                    if (last >= 0) {
+                        responsibilities.remove(last);
+                    }
+                }
+                current = new Experience();
+                current.setResponsibilitiesAndAchievements(new ArrayList<>());
+                titleAndCompany(heading, current);
+                companyHeading = heading != null && !AT_COMPANY.matcher(heading).find() ? heading : null;
+                current.setStartDate(date(range.group(1), false));
+                String end = range.group(2).toLowerCase(Locale.ROOT);
+                if (end.equals("present") || end.equals("current") || end.equals("now") || end.equals("today")) {
+                    current.setCurrentPosition(true);
+                } else {
+                    current.setEndDate(date(range.group(2), true));
+                }
+                positions.add(current);
+                previous = null;
+                continue;
+            }
+            Matcher bullet = BULLET.matcher(line);
+            boolean bulleted = bullet.find();
+            if (companyHeading != null && !bulleted && line.length() <= MAX_TITLE_LENGTH && !line.endsWith(".")) {
+                current.setCompanyName(companyHeading.split(",|\\s+[|–—-]\\s+")[0].strip());
+                current.setJobTitle(line);
+                companyHeading = null;
+                continue;
+            }
+            companyHeading = null;
+            if (current != null && current.getResponsibilitiesAndAchievements().size() < MAX_RESPONSIBILITIES) {
+                current.getResponsibilitiesAndAchievements().add(bulleted ? line.substring(bullet.end()) : line);
+            }
+            // A plain line may be the heading of the next position if its dates follow on their own line
+            previous = bulleted ? null : line;
+        }
+        for (Experience position : positions) {
+            if (position.getResponsibilitiesAndAchievements().isEmpty()) {
+                position.setResponsibilitiesAndAchievements(null);
+            }
+        }
+        return positions;
+    }
+
+    private static void titleAndCompany(String heading, Experience position) {
+        if (heading == null || heading.isEmpty()) {
+            return;
+        }
+        String[] parts = TITLE_COMPANY.split(heading, 2);
+        position.setJobTitle(parts[0].strip());
+        if (parts.length > 1) {
+            // "Acme Corp, Springfield, IL" keeps only the company
+            position.setCompanyName(parts[1].split(",|\\s+[|–—-]\\s+")[0].strip());
+        }
+    }
+
+    /**
+     * Parse "Jan 2020", "01/2020" or "2020"; a bare year is the first of January, or December for an end date
+     */
+    private static LocalDate date(String value, boolean end) {
+        String trimmed = value.strip();
+        try {
+            if (trimmed.contains("/")) {
+                String[] parts = trimmed.split("/");
+                return LocalDate.of(Integer.parseInt(parts[1]), Math.max(1, Math.min(12, Integer.parseInt(parts[0]))), 1);
+            }
+            Matcher year = YEAR.matcher(trimmed);
+            if (!year.find()) {
+                return null;
+            }
+            int month = end ? 12 : 1;
+            Matcher monthName = MONTH_NAME.matcher(trimmed);
+            if (monthName.find()) {
+                month = monthNumber(monthName.group());
+            }
+            return LocalDate.of(Integer.parseInt(year.group(1)), month, 1);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static int monthNumber(String name) {
+        String prefix = name.substring(0, 3).toLowerCase(Locale.ROOT);
+        return List.of("jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec").indexOf(prefix) + 1;
+    }
+
+    // ---- Education ----
+
+    /**
+     * One entry per line naming a degree or an institution; an entry takes the other one from the next lines
+     */
+    private static List<Education> education(List<String> lines) {
+        List<Education> entries = new ArrayList<>();
+        Education current = null;
+        for (String line : lines) {
+            Matcher degree = DEGREE.matcher(line);
+            Matcher institution = INSTITUTION.matcher(line);
+            boolean hasDegree = degree.find();
+            boolean hasInstitution = institution.find();
+            if (!hasDegree && !hasInstitution) {
+                if (current != null) {
+                    dates(line, current);
+                }
+                continue;
+            }
+            // A degree or institution the current entry already has starts the next one
+            if (current == null || (hasDegree && current.getDegree() != null)
+                    || (hasInstitution && current.getInstitution() != null)) {
+                current = new Education();
+                entries.add(current);
+            }
+            if (hasDegree) {
+                current.setDegree(degree.group(1));
+                Matcher major = MAJOR.matcher(line.substring(degree.end()));
+                if (major.find() && (!hasInstitution || !institution.group(1).contains(major.group(1)))) {
+                    current.setMajor(major.group(1));
+                }
+            }
+            if (hasInstitution) {
+                current.setInstitution(institution.group(1).strip());
+            }
+            dates(line, current);
+        }
+        return entries;
+    }
+
+    private static void dates(String line, Education entry) {
+        Matcher gpa = GPA.matcher(line);
+        if (gpa.find()) {
+            entry.setGpa(Double.parseDouble(gpa.group(1)));
+        }
+        Matcher range = DATE_RANGE.matcher(line);
+        if (range.find()) {
+            entry.setStartDate(date(range.group(1), false));
+            entry.setEndDate(date(range.group(2), true));
+            return;
+        }
+        Matcher year = YEAR.matcher(line);
+        if (entry.getEndDate() == null && year.find()) {
+            // A single year is the graduation year
+            entry.setEndDate(date(year.group(1), true));
+        }
+    }
+
+    private static <T> List<T> nullIfEmpty(List<T> list) {
+        return list.isEmpty() ? null : list;
+    }
+}
@@ -0,0 +1,334 @@
+package com.kjr.rpf.service.extraction;
+
+import com.kjr.rpf.config.ExtractionConfig;
+import com.kjr.rpf.model.Skills;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Known skills by category with their aliases ("K8s" for Kubernetes, "JS" for JavaScript),
+ * compiled into an Aho-Corasick automaton that finds every alias in a text in one pass.
+ * Each match yields the canonical name, so the stored skills can be queried with equality and $in;
+ * the lower-cased canonical name is the skill id stored in {@code Resume.skillIds}.
+ */
+@Component
+@Slf4j
+public class SkillsDictionary {
+
+    private static final List<String> CATEGORIES = List.of(
+            "programmingLanguages", "frameworks", "libraries", "databases", "tools", "cloudTechnologies", "softSkills");
+
+    private record Entry(String category, String name) {
+    }
+
+    // Aliases of at most two characters ("Go", "R", "JS") only match in text as written
+    private record Alias(Entry entry, String text, int length, boolean caseSensitive) {
+    }
+
+    private record Match(int start, int end, Alias alias) {
+    }
+
+    private static final class Node {
+        private final Node[] ascii = new Node[128];
+        private Map<Character, Node> other;
+        private Node fail;
+        // This node's alias, and the nearest node on the failure chain that has one
+        private Alias alias;
+        private Node output;
+
+        Node next(char c) {
+            if (c < 128) {
+                return ascii[c];
+            }
+            return other != null ? other.get(c) : null;
+        }
+
+        Node add(char c) {
+            Node next = next(c);
+            if (next == null) {
+                next = new Node();
+                if (c < 128) {
+                    ascii[c] = next;
+                } else {
+                    if (other == null) {
+                        other = new HashMap<>();
+                    }
+                    other.put(c, next);
+                }
+            }
+            return next;
+        }
+
+        Stream<Map.Entry<Character, Node>> children() {
+            Stream<Map.Entry<Character, Node>> children = IntStream.range(0, ascii.length)
+                    .filter(c -> ascii[c] != null)
+                    .mapToObj(c -> Map.entry((char) c, ascii[c]));
+            return other != null ? Stream.concat(children, other.entrySet().stream()) : children;
+        }
+    }
+
+    private final Node root = new Node();
+    // Normalized alias -> entry, for looking up a single skill name
+    private final Map<String, Entry> aliases = new HashMap<>();
+    private int maxLength = 1;
+
+    @Autowired
+    public SkillsDictionary(ResourceLoader resourceLoader, ExtractionConfig extractionConfig) throws IOException {
+        this(resourceLoader.getResource(extractionConfig.getSkillsDictionary()));
+        log.info("Skills dictionary with {} names loaded from {}", size(), extractionConfig.getSkillsDictionary());
+    }
+
+    public SkillsDictionary(Resource resource) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                String category = colon > 0 ? line.substring(0, colon).strip() : "";
+                if (!CATEGORIES.contains(category)) {
+                    throw new IOException("Unknown skill category in line: " + line);
+                }
+                String[] names = line.substring(colon + 1).split("\\|");
+                Entry entry = new Entry(category, names[0].strip());
+                for (String name : names) {
+                    add(entry, name.strip());
+                }
+            }
+        }
+        linkFailures();
+    }
+
+    private void add(Entry entry, String name) {
+        String key = normalize(name);
+        if (key.isEmpty() || aliases.putIfAbsent(key, entry) != null) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.add(key.charAt(i));
+        }
+        node.alias = new Alias(entry, name, key.length(), name.length() <= 2);
+        maxLength = Math.max(maxLength, key.length());
+    }
+
+    /**
+     * Breadth first, so the failure target of every node is complete before its children are linked
+     */
+    private void linkFailures() {
+        Queue<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        root.children().forEach(child -> {
+            child.getValue().fail = root;
+            queue.add(child.getValue());
+        });
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            node.output = node.fail.alias != null ? node.fail : node.fail.output;
+            node.children().forEach(child -> {
+                char c = child.getKey();
+                Node fail = node.fail;
+                while (fail != root && fail.next(c) == null) {
+                    fail = fail.fail;
+                }
+                Node target = fail.next(c);
+                child.getValue().fail = target != null && target != child.getValue() ? target : root;
+                queue.add(child.getValue());
+            });
+        }
+    }
+
+    public int size() {
+        return aliases.size();
+    }
+
+    /**
+     * Skills mentioned in the text, by category, each canonical name once in order of appearance
+     * @return the skills, or null if none is mentioned
+     */
+    public Skills match(String text) {
+        Map<String, Set<String>> found = new HashMap<>();
+        for (Match match : scan(text, false)) {
+            Entry entry = match.alias().entry();
+            found.computeIfAbsent(entry.category(), category -> new LinkedHashSet<>()).add(entry.name());
+        }
+        if (found.isEmpty()) {
+            return null;
+        }
+        Skills skills = new Skills();
+        skills.setProgrammingLanguages(list(found.get("programmingLanguages")));
+        skills.setFrameworks(list(found.get("frameworks")));
+        skills.setLibraries(list(found.get("libraries")));
+        skills.setDatabases(list(found.get("databases")));
+        skills.setTools(list(found.get("tools")));
+        skills.setCloudTechnologies(list(found.get("cloudTechnologies")));
+        skills.setSoftSkills(list(found.get("softSkills")));
+        return skills;
+    }
+
+    /**
+     * Ids of every skill in all categories
+     * @return the ids, or null if there are no skills
+     */
+    public static List<String> ids(Skills skills) {
+        if (skills == null) {
+            return null;
+        }
+        return Stream.of(skills.getProgrammingLanguages(), skills.getFrameworks(), skills.getLibraries(),
+                        skills.getDatabases(), skills.getTools(), skills.getCloudTechnologies(), skills.getSoftSkills())
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .map(SkillsDictionary::id)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Skill ids a search for any of the comma separated skills should match.
+     * Aliases are resolved regardless of case ("js", "k8s"); a term naming no known skill is kept as its lower-cased self.
+     */
+    public List<String> queryIds(String query) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String term : query.split("[,;]")) {
+            if (term.isBlank()) {
+                continue;
+            }
+            List<Match> matches = scan(term, true);
+            if (matches.isEmpty()) {
+                ids.add(normalize(term));
+            }
+            matches.forEach(match -> ids.add(id(match.alias().entry().name())));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Canonical name of a skill given by name or alias, regardless of case, or the name itself if it is unknown
+     */
+    public String canonicalName(String name) {
+        Entry entry = aliases.get(normalize(name));
+        return entry != null ? entry.name() : name.strip();
+    }
+
+    private static String id(String canonicalName) {
+        return canonicalName.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> list(Set<String> names) {
+        return names != null ? new ArrayList<>(names) : null;
+    }
+
+    /**
+     * Lower case with runs of whitespace as a single space, the form aliases are stored and text is scanned in
+     */
+    private static String normalize(String name) {
+        return name.strip().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Run the text through the automaton once and keep the leftmost longest alias matches that stand as whole words
+     */
+    private List<Match> scan(String text, boolean ignoreCase) {
+        List<Match> matches = new ArrayList<>();
+        // Positions in the text of the last maxLength characters fed to the automaton
+        int[] positions = new int[maxLength];
+        long fed = 0;
+        Node node = root;
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == '\u00A0') {
+                // A run of whitespace is a single space, so "Spring  Boot" and "Spring\nBoot" are found too
+                if (space) {
+                    continue;
+                }
+                c = ' ';
+                space = true;
+            } else {
+                c = Character.toLowerCase(c);
+                space = false;
+            }
+            positions[(int) (fed++ % maxLength)] = i;
+            while (node != root && node.next(c) == null) {
+                node = node.fail;
+            }
+            Node next = node.next(c);
+            node = next != null ? next : root;
+            for (Node output = node.alias != null ? node : node.output; output != null; output = output.output) {
+                Alias alias = output.alias;
+                int start = positions[(int) ((fed - alias.length()) % maxLength)];
+                if (isWord(text, start, i + 1) && (ignoreCase || !alias.caseSensitive()
+                        || text.startsWith(alias.text(), start))) {
+                    matches.add(new Match(start, i + 1, alias));
+                }
+            }
+        }
+
+        // Longest alias first where several start at the same place, so "Spring Boot" wins over "Spring"
+        matches.sort(Comparator.comparingInt(Match::start).thenComparing(Comparator.comparingInt(Match::end).reversed()));
+        List<Match> selected = new ArrayList<>();
+        int end = 0;
+        for (Match match : matches) {
+            if (match.start() >= end) {
+                selected.add(match);
+                end = match.end();
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Whether the region is not part of a longer word. Dots, dashes, underscores and ampersands between letters
+     * join words ("Node.js", "C-level", "R&D"), while slashes separate them, so "Java/Spring" names two skills.
+     * A single letter followed by a dash is never a word of its own ("C- and D-level").
+     */
+    private static boolean isWord(String text, int start, int end) {
+        if (start > 0) {
+            char before = text.charAt(start - 1);
+            if (isWordChar(before) || (isJoiner(before) && start > 1 && Character.isLetterOrDigit(text.charAt(start - 2)))) {
+                return false;
+            }
+        }
+        if (end < text.length()) {
+            char after = text.charAt(end);
+            if (after == '-' && end - start == 1) {
+                return false;
+            }
+            return !isWordChar(after)
+                    && !(isJoiner(after) && end + 1 < text.length() && Character.isLetterOrDigit(text.charAt(end + 1)));
+        }
+        return true;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+
+    private static boolean isJoiner(char c) {
+        return c == '.' || c == '-' || c == '_' || c == '&';
+    }
+}
@@ -0,0 +1,78 @@
+package com.kjr.rpf.service.masking;
+
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.storage.CompressedHtml;
+import org.springframework.stereotype.Component;
+
+/**
+ * Produces the masked rendition of a resume shown to anonymous visitors.
+ * Email addresses, phone numbers, LinkedIn profiles and street addresses are masked by a {@link PiiScanner},
+ * all other content is left as is.
+ * <p>
+ * Masked HTML is stored with the {@link #RULES_VERSION} it was produced with;
+ * bump the version whenever the rules change so {@link RemaskJob} regenerates it.
+ */
+@Component
+public class PersonalInfoMasker {
+
+    public static final String RULES_VERSION = "2";
+
+    private static final String PRE_START = "<pre>";
+    private static final String PRE_END = "</pre>";
+
+    private final PiiScanner scanner = new PiiScanner();
+
+    /**
+     * Mask the text inside the &lt;pre&gt; regions of a converted resume.
+     * The text there is already HTML-escaped, and the masks neither match nor produce entities.
+     */
+    public String mask(String html) {
+        if (html == null || html.isEmpty()) {
+            return html;
+        }
+        return mask(html, new StringBuilder(html.length()));
+    }
+
+    /**
+     * Same as {@link #mask(String)}, building the result in the given buffer, which is cleared first.
+     * Lets batch jobs reuse one buffer for every document.
+     */
+    public String mask(String html, StringBuilder buffer) {
+        if (html == null || html.isEmpty()) {
+            return html;
+        }
+        buffer.setLength(0);
+        int position = 0;
+        int start;
+        while ((start = html.indexOf(PRE_START, position)) >= 0) {
+            int textStart = start + PRE_START.length();
+            int end = html.indexOf(PRE_END, textStart);
+            if (end < 0) {
+                break;
+            }
+            buffer.append(html, position, textStart);
+            scanner.mask(html, textStart, end, buffer);
+            position = end;
+        }
+        buffer.append(html, position, html.length());
+        return buffer.toString();
+    }
+
+    /**
+     * Set the compressed masked rendition of a resume from its current HTML content
+     */
+    public void apply(Resume resume) {
+        String html = resume.getHtml();
+        resume.setMaskedHtmlContentGzip(CompressedHtml.compress(mask(html)));
+        resume.setMaskedHtmlContent(null);
+        resume.setMaskingRulesVersion(html != null ? RULES_VERSION : null);
+    }
+
+    /**
+     * Whether the stored masked rendition was produced by the current rules
+     */
+    public boolean isCurrent(Resume resume) {
+        return (resume.getMaskedHtmlContentGzip() != null || resume.getMaskedHtmlContent() != null)
+                && RULES_VERSION.equals(resume.getMaskingRulesVersion());
+    }
+}
@@ -0,0 +1,305 @@
+package com.kjr.rpf.service.masking;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Masks personal information in plain or HTML-escaped text in a single left-to-right pass,
+ * appending the result to a caller supplied buffer.
+ * <p>
+ * Emails and phone numbers are masked exactly like the former regular expressions
+ * (emails first, then phone numbers in the result):
+ * <pre>
+ * (?i)([a-zA-Z0-9._%+-]{3})[a-zA-Z0-9._%+-]*@[a-z0-9.-]+\.[a-z]{2,}   -&gt; $1***@mail
+ * (\+?\(?\d{1,3}\)?[-. ]?)?\d{2,3}[-. ]?\d{2,3}[-. ]?(\d{4})           -&gt; ******$2
+ * </pre>
+ * but without backtracking over the text: the email local part and domain are each scanned once,
+ * and a phone number is at most 19 characters, so every match attempt does bounded work.
+ * LinkedIn profile URLs and street addresses are masked as well.
+ */
+public class PiiScanner {
+
+    /**
+     * Kinds of personal information the scanner masks
+     */
+    public enum Rule {
+        EMAIL, PHONE, LINKEDIN, ADDRESS
+    }
+
+    static final String EMAIL_MASK = "***@mail";
+    static final String PHONE_MASK = "******";
+    static final String LINKEDIN_MASK = "***";
+    static final String ADDRESS_MASK = "[address]";
+
+    private static final String LINKEDIN_HOST = "linkedin.com/";
+    private static final String[] LINKEDIN_PATHS = {"in/", "pub/"};
+
+    private static final Set<String> STREET_SUFFIXES = Set.of(
+            "Street", "St", "Avenue", "Ave", "Road", "Rd", "Boulevard", "Blvd", "Lane", "Ln",
+            "Drive", "Dr", "Court", "Ct", "Way", "Place", "Pl", "Terrace", "Parkway", "Pkwy");
+    private static final int MAX_STREET_NAME_WORDS = 3;
+
+    // Phone tokens: the optional country/area code group, then \d{2,3}[-. ]?\d{2,3}[-. ]?\d{4}
+    private static final int PLUS = 0, OPEN = 1, DIGIT = 2, CLOSE = 3, SEPARATOR = 4;
+    private static final int[] PHONE_CLASS = {PLUS, OPEN, DIGIT, CLOSE, SEPARATOR, DIGIT, SEPARATOR, DIGIT, SEPARATOR, DIGIT};
+    private static final int[] PHONE_MIN = {0, 0, 1, 0, 0, 2, 0, 2, 0, 4};
+    private static final int[] PHONE_MAX = {1, 1, 3, 1, 1, 3, 1, 3, 1, 4};
+    private static final int PHONE_GROUP_END = 5;
+
+    private final boolean emails;
+    private final boolean phones;
+    private final boolean linkedIn;
+    private final boolean addresses;
+
+    public PiiScanner() {
+        this(EnumSet.allOf(Rule.class));
+    }
+
+    public PiiScanner(Set<Rule> rules) {
+        this.emails = rules.contains(Rule.EMAIL);
+        this.phones = rules.contains(Rule.PHONE);
+        this.linkedIn = rules.contains(Rule.LINKEDIN);
+        this.addresses = rules.contains(Rule.ADDRESS);
+    }
+
+    /**
+     * Append {@code text[start, end)} to {@code out} with personal information masked
+     */
+    public void mask(CharSequence text, int start, int end, StringBuilder out) {
+        // Emails are found ahead of the main position; the next one bounds the other matches
+        long email = emails ? findEmail(text, start, end) : -1;
+        int i = start;
+        int run = start;
+        while (i < end) {
+            int emailStart = email >= 0 ? (int) (email >>> 32) : end;
+            if (i >= emailStart) {
+                // The first 3 characters of the local part are kept, a phone number may have ended inside them
+                int emailEnd = (int) email;
+                out.append(text, run, i).append(text, i, emailStart + 3).append(EMAIL_MASK);
+                i = run = emailEnd;
+                email = findEmail(text, emailEnd, end);
+                continue;
+            }
+            char c = text.charAt(i);
+            int matchEnd = -1;
+            if (phones && (isDigit(c) || c == '+' || c == '(')) {
+                // A phone number may overlap the kept part of the next email, the masked part stops it
+                matchEnd = matchPhone(text, i, Math.min(emailStart + 3, end));
+                if (matchEnd >= 0) {
+                    out.append(text, run, i).append(PHONE_MASK).append(text, matchEnd - 4, matchEnd);
+                }
+            }
+            if (matchEnd < 0 && linkedIn && (c == 'l' || c == 'L')) {
+                int slugStart = matchLinkedInPath(text, i, emailStart);
+                if (slugStart >= 0) {
+                    matchEnd = slugEnd(text, slugStart, emailStart);
+                    if (matchEnd > slugStart) {
+                        out.append(text, run, slugStart).append(LINKEDIN_MASK);
+                    } else {
+                        matchEnd = -1;
+                    }
+                }
+            }
+            if (matchEnd < 0 && addresses && isDigit(c) && (i == start || !isLetterOrDigit(text.charAt(i - 1)))) {
+                matchEnd = matchAddress(text, i, emailStart);
+                if (matchEnd >= 0) {
+                    out.append(text, run, i).append(ADDRESS_MASK);
+                }
+            }
+            if (matchEnd >= 0) {
+                i = run = matchEnd;
+            } else {
+                i++;
+            }
+        }
+        out.append(text, run, end);
+    }
+
+    /**
+     * Mask a whole text
+     */
+    public String mask(CharSequence text) {
+        StringBuilder out = new StringBuilder(text.length());
+        mask(text, 0, text.length(), out);
+        return out.toString();
+    }
+
+    // ---- Emails ----
+
+    /**
+     * Next email match at or after {@code from}, packed as {@code start << 32 | end}, or -1
+     */
+    private static long findEmail(CharSequence text, int from, int end) {
+        for (int at = from; at < end; at++) {
+            if (text.charAt(at) != '@') {
+                continue;
+            }
+            // The match starts where the run of local part characters before the @ starts
+            int localStart = at;
+            while (localStart > from && isLocalChar(text.charAt(localStart - 1))) {
+                localStart--;
+            }
+            if (at - localStart < 3) {
+                continue;
+            }
+            int domainEnd = at + 1;
+            while (domainEnd < end && isDomainChar(text.charAt(domainEnd))) {
+                domainEnd++;
+            }
+            // Greedy domain: the last dot with at least two letters after it and something before it
+            for (int dot = domainEnd - 3; dot >= at + 2; dot--) {
+                if (text.charAt(dot) == '.' && isLetter(text.charAt(dot + 1)) && isLetter(text.charAt(dot + 2))) {
+                    int matchEnd = dot + 3;
+                    while (matchEnd < domainEnd && isLetter(text.charAt(matchEnd))) {
+                        matchEnd++;
+                    }
+                    return ((long) localStart << 32) | matchEnd;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return isLetterOrDigit(c) || c == '.' || c == '-';
+    }
+
+    // ---- Phone numbers ----
+
+    /**
+     * End of the phone number starting at {@code start}, or -1.
+     * Tries the alternatives in the order the regular expression would, so the match is the same.
+     */
+    private static int matchPhone(CharSequence text, int start, int limit) {
+        int matchEnd = matchPhoneTokens(text, 0, start, limit);
+        return matchEnd >= 0 ? matchEnd : matchPhoneTokens(text, PHONE_GROUP_END, start, limit);
+    }
+
+    private static int matchPhoneTokens(CharSequence text, int token, int position, int limit) {
+        if (token == PHONE_CLASS.length) {
+            return position;
+        }
+        int available = 0;
+        while (available < PHONE_MAX[token] && position + available < limit
+                && matchesPhoneClass(PHONE_CLASS[token], text.charAt(position + available))) {
+            available++;
+        }
+        // Greedy: longest repetition first
+        for (int count = available; count >= PHONE_MIN[token]; count--) {
+            int matchEnd = matchPhoneTokens(text, token + 1, position + count, limit);
+            if (matchEnd >= 0) {
+                return matchEnd;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matchesPhoneClass(int phoneClass, char c) {
+        return switch (phoneClass) {
+            case PLUS -> c == '+';
+            case OPEN -> c == '(';
+            case CLOSE -> c == ')';
+            case SEPARATOR -> c == '-' || c == '.' || c == ' ';
+            default -> isDigit(c);
+        };
+    }
+
+    // ---- LinkedIn profiles ----
+
+    /**
+     * Start of the profile name if a linkedin.com/in/ or /pub/ URL starts at {@code start}, or -1
+     */
+    private static int matchLinkedInPath(CharSequence text, int start, int limit) {
+        if (!regionMatchesIgnoreCase(text, start, LINKEDIN_HOST, limit)) {
+            return -1;
+        }
+        int path = start + LINKEDIN_HOST.length();
+        for (String prefix : LINKEDIN_PATHS) {
+            if (regionMatchesIgnoreCase(text, path, prefix, limit)) {
+                return path + prefix.length();
+            }
+        }
+        return -1;
+    }
+
+    private static int slugEnd(CharSequence text, int position, int limit) {
+        while (position < limit) {
+            char c = text.charAt(position);
+            if (!isLetterOrDigit(c) && c != '-' && c != '_' && c != '%') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    // ---- Street addresses ----
+
+    /**
+     * End of a street address such as "221 Baker Street" or "1600 Amphitheatre Pkwy." starting at
+     * {@code start}, or -1: a house number, capitalized street name words and a street suffix
+     */
+    private static int matchAddress(CharSequence text, int start, int limit) {
+        int position = start;
+        while (position < limit && isDigit(text.charAt(position)) && position - start < 5) {
+            position++;
+        }
+        if (position < limit && isDigit(text.charAt(position))) {
+            return -1;
+        }
+        int nameWords = 0;
+        while (position < limit && text.charAt(position) == ' ') {
+            int wordStart = position + 1;
+            if (wordStart >= limit || !isUpperCase(text.charAt(wordStart))) {
+                return -1;
+            }
+            int wordEnd = wordStart + 1;
+            while (wordEnd < limit && isLetter(text.charAt(wordEnd))) {
+                wordEnd++;
+            }
+            if (nameWords > 0 && STREET_SUFFIXES.contains(text.subSequence(wordStart, wordEnd).toString())) {
+                return wordEnd < limit && text.charAt(wordEnd) == '.' ? wordEnd + 1 : wordEnd;
+            }
+            if (++nameWords > MAX_STREET_NAME_WORDS) {
+                return -1;
+            }
+            position = wordEnd;
+        }
+        return -1;
+    }
+
+    // ---- Characters ----
+
+    private static boolean regionMatchesIgnoreCase(CharSequence text, int start, String expected, int limit) {
+        if (start + expected.length() > limit) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ASCII only, like the former patterns
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isUpperCase(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || isDigit(c);
+    }
+}
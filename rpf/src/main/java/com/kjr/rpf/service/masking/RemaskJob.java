@@ -0,0 +1,97 @@
+package com.kjr.rpf.service.masking;
+
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.cache.ResumeHtmlCache;
+import com.kjr.rpf.service.storage.CompressedHtml;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Regenerates the stored masked HTML of resumes masked by an older version of the masking rules
+ */
+@Component
+@Slf4j
+public class RemaskJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final PersonalInfoMasker masker;
+    private final ResumeHtmlCache htmlCache;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Autowired
+    public RemaskJob(MongoTemplate mongoTemplate, PersonalInfoMasker masker, ResumeHtmlCache htmlCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.masker = masker;
+        this.htmlCache = htmlCache;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void remaskOnStartup() {
+        try {
+            if (mongoTemplate.exists(outdated(), Resume.class)) {
+                remask();
+            }
+        } catch (Exception e) {
+            log.error("Re-masking resumes failed", e);
+        }
+    }
+
+    /**
+     * Re-mask all converted resumes whose masked HTML is missing or outdated
+     * @return the number of re-masked resumes, or -1 if the job is already running
+     */
+    public int remask() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Re-masking already running");
+            return -1;
+        }
+        int remasked = 0;
+        try {
+            Query query = outdated();
+            query.fields().include("_id", "htmlContentGzip", "htmlContent");
+            query.cursorBatchSize(16);
+
+            StringBuilder buffer = new StringBuilder();
+            try (Stream<Resume> resumes = mongoTemplate.stream(query, Resume.class)) {
+                for (Resume resume : (Iterable<Resume>) resumes::iterator) {
+                    // Skip documents saved with the current rules since they were read
+                    Query current = Query.query(Criteria.where("_id").is(resume.getId())
+                            .and("maskingRulesVersion").ne(PersonalInfoMasker.RULES_VERSION));
+                    Update update = new Update()
+                            .set("maskedHtmlContentGzip", CompressedHtml.compress(masker.mask(resume.getHtml(), buffer)))
+                            .unset("maskedHtmlContent")
+                            .set("maskingRulesVersion", PersonalInfoMasker.RULES_VERSION)
+                            .inc("revision", 1);
+                    if (mongoTemplate.updateFirst(current, update, Resume.class).getModifiedCount() > 0) {
+                        htmlCache.invalidateMasked(resume.getId());
+                        remasked++;
+                    }
+                }
+            }
+            log.info("Re-masking completed, {} resumes masked with rules version {}", remasked,
+                    PersonalInfoMasker.RULES_VERSION);
+            return remasked;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static Query outdated() {
+        return Query.query(new Criteria().andOperator(
+                new Criteria().orOperator(Criteria.where("htmlContentGzip").exists(true),
+                        Criteria.where("htmlContent").ne(null)),
+                Criteria.where("maskingRulesVersion").ne(PersonalInfoMasker.RULES_VERSION)));
+    }
+}
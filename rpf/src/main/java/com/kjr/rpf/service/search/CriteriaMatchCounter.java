@@ -0,0 +1,59 @@
+package com.kjr.rpf.service.search;
+
+import org.bson.types.ObjectId;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Merges the ids matched by each search criterion into one count per resume.
+ * Keyed on the 12-byte ObjectId, so merging never touches the resume documents themselves.
+ * <p>
+ * The resumes to count are known up front (a page of results), so the ids are kept sorted in an array
+ * with the counts in a parallel {@code int[]}: no boxed map entries, and a lookup is a binary search.
+ */
+public final class CriteriaMatchCounter {
+
+    private final ObjectId[] ids;
+    private final int[] counts;
+
+    /**
+     * @param ids the resumes to count matches for, ids matched outside of them are ignored
+     */
+    public CriteriaMatchCounter(Collection<ObjectId> ids) {
+        ObjectId[] sorted = ids.toArray(new ObjectId[0]);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || !sorted[i].equals(sorted[distinct - 1])) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        this.ids = distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+        this.counts = new int[distinct];
+    }
+
+    /**
+     * Record one matched criterion for each of the ids
+     */
+    public void addAll(Collection<ObjectId> matched) {
+        for (ObjectId id : matched) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) {
+                counts[index]++;
+            }
+        }
+    }
+
+    /**
+     * Number of criteria the resume matched, 0 if it matched none
+     */
+    public int count(ObjectId id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    public int count(String id) {
+        return ObjectId.isValid(id) ? count(new ObjectId(id)) : 0;
+    }
+}
@@ -0,0 +1,275 @@
+package com.kjr.rpf.service.search;
+
+import com.kjr.rpf.config.SearchIndexConfig;
+import com.kjr.rpf.dto.ResumeSearchCriteria;
+import com.kjr.rpf.service.extraction.ContactTokens;
+import com.kjr.rpf.service.extraction.SkillsDictionary;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles a {@link ResumeSearchCriteria} into a single MongoDB query, so a search
+ * costs one round trip with deduplication, limit and projection done server side.
+ * <p>
+ * User input only reaches the query through {@link SearchPatterns}. Equality on text fields is meant to be
+ * evaluated under {@link com.kjr.rpf.repository.ResumeRepositoryCustom#CASE_INSENSITIVE}, which the repository
+ * applies to every filtered query.
+ */
+@Component
+@Slf4j
+public class ResumeQueryCompiler {
+
+    private final ResumeSearchIndex searchIndex;
+    private final SearchIndexConfig searchIndexConfig;
+    private final SkillsDictionary skillsDictionary;
+    private final ContactTokens contactTokens;
+    private final SearchPatterns patterns;
+
+    @Autowired
+    public ResumeQueryCompiler(ResumeSearchIndex searchIndex, SearchIndexConfig searchIndexConfig,
+                               SkillsDictionary skillsDictionary, ContactTokens contactTokens,
+                               SearchPatterns patterns) {
+        this.searchIndex = searchIndex;
+        this.searchIndexConfig = searchIndexConfig;
+        this.skillsDictionary = skillsDictionary;
+        this.contactTokens = contactTokens;
+        this.patterns = patterns;
+    }
+
+    /**
+     * Build the filter for the criteria.
+     * Populated criteria are combined according to the match mode; the upload date range
+     * is always applied as a restriction on top of them.
+     *
+     * @return the filter, or null if no criterion is populated
+     */
+    public Criteria compile(ResumeSearchCriteria criteria) {
+        return compile(criteria, compileClauses(criteria));
+    }
+
+    /**
+     * Build the filter for the criteria from clauses already compiled by {@link #compileClauses}
+     */
+    public Criteria compile(ResumeSearchCriteria criteria, List<Criteria> clauses) {
+        // Basic text search - resolved against the full-text index, then matched by id
+        Criteria keywordMatch = hasText(criteria.getKeyword()) ? fullTextMatch(criteria.getKeyword(), false) : null;
+        return combine(criteria, keywordMatch, clauses);
+    }
+
+    /**
+     * Build the filter for the keyword hits of a relevance ranked search, narrowed down by the upload date range.
+     * In match mode ALL the remaining criteria narrow them down further; in mode ANY they do not,
+     * the resumes found only through them are selected by {@link #compileRankedOthers} instead.
+     *
+     * @throws IllegalArgumentException if the search cannot be ranked
+     */
+    public Criteria compileRanked(ResumeSearchCriteria criteria, List<Criteria> clauses, List<SearchHit> keywordHits) {
+        if (!isRankable(criteria)) {
+            throw new IllegalArgumentException("Only keyword searches can be ranked");
+        }
+        Criteria hitMatch = idIn(keywordHits.stream().map(SearchHit::id).toList());
+        return combine(criteria, hitMatch, criteria.getMatchMode() == ResumeSearchCriteria.MatchMode.ALL ? clauses : List.of());
+    }
+
+    /**
+     * Build the filter for the resumes a ranked search in match mode ANY finds through its other criteria
+     * but not through its keyword: matching any of the clauses, none of the keyword hits, within the upload date range
+     *
+     * @return the filter, or null if only keyword hits can match (mode ALL or no other criteria)
+     */
+    public Criteria compileRankedOthers(ResumeSearchCriteria criteria, List<Criteria> clauses, List<SearchHit> keywordHits) {
+        if (clauses.isEmpty() || criteria.getMatchMode() == ResumeSearchCriteria.MatchMode.ALL) {
+            return null;
+        }
+        Criteria anyClause = clauses.size() == 1 ? clauses.get(0) : new Criteria().orOperator(clauses);
+        Criteria notHit = Criteria.where("_id").nin(objectIds(keywordHits.stream().map(SearchHit::id).toList()));
+        Criteria uploadedRange = uploadedRange(criteria);
+        return uploadedRange != null
+                ? new Criteria().andOperator(anyClause, notHit, uploadedRange)
+                : new Criteria().andOperator(anyClause, notHit);
+    }
+
+    /**
+     * Whether the search has a keyword, so its results can be ranked by keyword relevance
+     */
+    public static boolean isRankable(ResumeSearchCriteria criteria) {
+        return hasText(criteria.getKeyword());
+    }
+
+    /**
+     * One clause per populated criterion other than the keyword, which is evaluated through the search index
+     */
+    public List<Criteria> compileClauses(ResumeSearchCriteria criteria) {
+        List<Criteria> clauses = new ArrayList<>();
+        if (hasText(criteria.getKeyword())) {
+            // Evaluated by the caller, but rejected here like any other term
+            patterns.check(criteria.getKeyword());
+        }
+
+        // Name search - equality under the case-insensitive collation
+        if (hasText(criteria.getFirstName())) {
+            clauses.add(Criteria.where("firstName").is(patterns.check(criteria.getFirstName())));
+        }
+        if (hasText(criteria.getLastName())) {
+            clauses.add(Criteria.where("lastName").is(patterns.check(criteria.getLastName())));
+        }
+        if (hasText(criteria.getFullName())) {
+            String fullName = patterns.check(criteria.getFullName());
+            clauses.add(new Criteria().orOperator(
+                    Criteria.where("firstName").is(fullName),
+                    Criteria.where("lastName").is(fullName)));
+        }
+
+        // Contact search - exact lookups of the normalized tokens of every email and phone number in a resume
+        if (hasText(criteria.getEmail())) {
+            String email = patterns.check(criteria.getEmail());
+            String token = contactTokens.email(email);
+            clauses.add(token != null
+                    ? Criteria.where("contactTokens").is(token)
+                    : Criteria.where("email").is(email));
+        }
+        if (hasText(criteria.getPhone())) {
+            // A fragment too short to be a number can only be found in the text
+            String token = contactTokens.phone(patterns.check(criteria.getPhone()));
+            clauses.add(token != null
+                    ? Criteria.where("contactTokens").is(token)
+                    : fullTextMatch(criteria.getPhone(), true));
+        }
+
+        // Location search
+        if (hasText(criteria.getCity())) {
+            clauses.add(Criteria.where("city").is(patterns.check(criteria.getCity())));
+        }
+        if (hasText(criteria.getState())) {
+            clauses.add(Criteria.where("state").is(patterns.check(criteria.getState())));
+        }
+
+        // Skills search - names and aliases are resolved to the canonical names stored at extraction
+        addSkillsIn(clauses, "skills.programmingLanguages", criteria.getProgrammingLanguages());
+        addSkillsIn(clauses, "skills.frameworks", criteria.getFrameworks());
+        addSkillsIn(clauses, "skills.databases", criteria.getDatabases());
+        addSkillsIn(clauses, "skills.tools", criteria.getTools());
+        addSkillsIn(clauses, "skills.cloudTechnologies", criteria.getCloudTechnologies());
+        if (hasText(criteria.getAnySkill())) {
+            clauses.add(Criteria.where("skillIds").in(skillsDictionary.queryIds(patterns.check(criteria.getAnySkill()))));
+        }
+
+        // Experience and education search - values starting with the term, as index ranges
+        addStartsWith(clauses, "experience", "companyName", criteria.getCompanyName());
+        addStartsWith(clauses, "experience", "jobTitle", criteria.getJobTitle());
+        addStartsWith(clauses, "education", "degree", criteria.getDegree());
+        addStartsWith(clauses, "education", "institution", criteria.getInstitution());
+        addStartsWith(clauses, "education", "major", criteria.getMajor());
+        return clauses;
+    }
+
+    private static Criteria combine(ResumeSearchCriteria criteria, Criteria keywordMatch, List<Criteria> criterionClauses) {
+        List<Criteria> clauses = new ArrayList<>();
+        if (keywordMatch != null) {
+            clauses.add(keywordMatch);
+        }
+        clauses.addAll(criterionClauses);
+
+        Criteria uploadedRange = uploadedRange(criteria);
+
+        if (clauses.isEmpty()) {
+            return uploadedRange;
+        }
+        Criteria combined;
+        if (clauses.size() == 1) {
+            combined = clauses.get(0);
+        } else if (criteria.getMatchMode() == ResumeSearchCriteria.MatchMode.ALL) {
+            combined = new Criteria().andOperator(clauses);
+        } else {
+            combined = new Criteria().orOperator(clauses);
+        }
+        return uploadedRange != null ? new Criteria().andOperator(combined, uploadedRange) : combined;
+    }
+
+    /**
+     * Criteria matching the resumes the full-text index returns for the value.
+     * Falls back to scanning the stored HTML if the index cannot be read.
+     */
+    private Criteria fullTextMatch(String value, boolean phrase) {
+        try {
+            List<String> ids = phrase
+                    ? searchIndex.searchPhrase(value, searchIndexConfig.getMaxHits())
+                    : searchIndex.searchKeyword(value, searchIndexConfig.getMaxHits());
+            return idIn(ids);
+        } catch (IOException e) {
+            // Only documents stored before HTML compression can be scanned
+            log.warn("Search index unavailable, falling back to content scan for '{}'", value, e);
+            return patterns.contains("htmlContent", value);
+        }
+    }
+
+    private static Criteria idIn(List<String> ids) {
+        return Criteria.where("_id").in(objectIds(ids));
+    }
+
+    private static List<ObjectId> objectIds(List<String> ids) {
+        return ids.stream().filter(ObjectId::isValid).map(ObjectId::new).toList();
+    }
+
+    private static Criteria uploadedRange(ResumeSearchCriteria criteria) {
+        boolean hasAfter = hasText(criteria.getUploadedAfter());
+        boolean hasBefore = hasText(criteria.getUploadedBefore());
+        if (!hasAfter && !hasBefore) {
+            return null;
+        }
+        Criteria range = Criteria.where("uploadedAt");
+        if (hasAfter) {
+            range = range.gte(parseDate(criteria.getUploadedAfter()));
+        }
+        if (hasBefore) {
+            range = range.lte(parseDate(criteria.getUploadedBefore()));
+        }
+        return range;
+    }
+
+    /**
+     * Parse an ISO date-time, or an ISO date (as sent by date inputs) at start of day
+     */
+    private static LocalDateTime parseDate(String value) {
+        String trimmed = value.trim();
+        try {
+            if (trimmed.length() == 10) {
+                return LocalDate.parse(trimmed).atStartOfDay();
+            }
+            return LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value, e);
+        }
+    }
+
+    private void addStartsWith(List<Criteria> clauses, String array, String field, String value) {
+        if (hasText(value)) {
+            clauses.add(patterns.startsWith(array, field, value));
+        }
+    }
+
+    private void addSkillsIn(List<Criteria> clauses, String field, List<String> names) {
+        if (names == null) {
+            return;
+        }
+        List<String> canonical = names.stream().filter(ResumeQueryCompiler::hasText)
+                .map(patterns::check).map(skillsDictionary::canonicalName).distinct().toList();
+        if (!canonical.isEmpty()) {
+            clauses.add(Criteria.where(field).in(canonical));
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
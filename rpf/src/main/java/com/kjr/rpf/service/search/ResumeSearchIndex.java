@@ -0,0 +1,455 @@
+package com.kjr.rpf.service.search;
+
+import com.kjr.rpf.config.SearchIndexConfig;
+import com.kjr.rpf.model.Education;
+import com.kjr.rpf.model.Experience;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.model.Skills;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-process Lucene full-text index over resume text and structured fields.
+ * MongoDB stays the source of truth; the index only maps queries to resume ids
+ * and can be rebuilt from the collection at any time.
+ * <p>
+ * Changes are not committed one by one: the near-real-time searcher is refreshed every
+ * {@code refresh-interval-ms} and the writer is committed every {@code commit-interval-ms} and on shutdown.
+ * Changes lost in a crash before their commit are recovered by a rebuild.
+ */
+@Component
+@Slf4j
+public class ResumeSearchIndex {
+
+    static final String ID = "id";
+    static final String TEXT = "text";
+    static final String NAME = "name";
+    static final String SKILLS = "skills";
+    static final String JOB_TITLE = "jobTitle";
+    static final String EXPERIENCE = "experience";
+    static final String EDUCATION = "education";
+    static final String UPLOADED_AT = "uploadedAt";
+
+    private static final List<String> KEYWORD_FIELDS = List.of(TEXT, NAME, SKILLS, JOB_TITLE, EXPERIENCE, EDUCATION);
+
+    // Relative weight of a match per field in ranked searches, structured fields rank above body text
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            SKILLS, 3.0f,
+            JOB_TITLE, 3.0f,
+            NAME, 2.0f,
+            EXPERIENCE, 1.5f,
+            EDUCATION, 1.2f,
+            TEXT, 1.0f);
+
+    // Bumped whenever the document layout changes, an index with another version is rebuilt at startup
+    static final String SCHEMA_VERSION = "2";
+    private static final String SCHEMA_VERSION_KEY = "schemaVersion";
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final SearchIndexConfig config;
+    // Shared by single changes, exclusive for a rebuild, so no change or refresh interleaves with one
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Only replaced under the write lock, when a failed rebuild is rolled back
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ResumeSearchIndex(SearchIndexConfig config) throws IOException {
+        this.config = config;
+        Path path = Paths.get(config.getPath()).toAbsolutePath();
+        Files.createDirectories(path);
+        // FSDirectory picks MMapDirectory on 64-bit JVMs
+        this.directory = FSDirectory.open(path);
+        this.writer = openWriter();
+        // Near-real-time searcher on top of the writer, refreshed on a schedule
+        this.searcherManager = new SearcherManager(writer, null);
+        if (writer.getDocStats().numDocs == 0) {
+            markCurrentSchema();
+        }
+        log.info("Search index at {} with {} documents", path, writer.getDocStats().numDocs);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("search-index-");
+        threadFactory.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::refresh,
+                config.getRefreshIntervalMs(), config.getRefreshIntervalMs(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::commit,
+                config.getCommitIntervalMs(), config.getCommitIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Add or replace the index entry of a resume, its text is read from the stored HTML.
+     * Searchable after the next refresh; waits while the index is being rebuilt.
+     */
+    public void index(Resume resume) throws IOException {
+        rebuildLock.readLock().lock();
+        try {
+            writer.updateDocument(new Term(ID, resume.getId()), toDocument(resume));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a resume from the index, gone from searches after the next refresh
+     */
+    public void delete(String id) throws IOException {
+        rebuildLock.readLock().lock();
+        try {
+            writer.deleteDocuments(new Term(ID, id));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace the index entries of a batch of resumes, searchable together after a single refresh
+     */
+    public void indexAll(Collection<Resume> resumes) throws IOException {
+        rebuildLock.readLock().lock();
+        try {
+            for (Resume resume : resumes) {
+                writer.updateDocument(new Term(ID, resume.getId()), toDocument(resume));
+            }
+            searcherManager.maybeRefresh();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index with the given resumes, text is recovered from their stored HTML.
+     * Searches keep seeing the previous index until the new one is complete and committed;
+     * single changes wait for the rebuild, so none is lost or resurrected by it.
+     * If the rebuild fails, the index is rolled back to the previous one.
+     * @return the number of indexed resumes
+     */
+    public int rebuild(Iterator<Resume> resumes) throws IOException {
+        rebuildLock.writeLock().lock();
+        try {
+            // The previous index becomes the last commit, which a failed rebuild rolls back to
+            writer.commit();
+            int count = 0;
+            try {
+                writer.deleteAll();
+                while (resumes.hasNext()) {
+                    Resume resume = resumes.next();
+                    writer.addDocument(toDocument(resume));
+                    count++;
+                }
+                markCurrentSchema();
+                writer.commit();
+            } catch (IOException | RuntimeException e) {
+                try {
+                    rollback();
+                } catch (IOException | RuntimeException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            }
+            searcherManager.maybeRefreshBlocking();
+            return count;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discard the uncommitted changes and reopen the writer and searcher on the last commit.
+     * A Lucene writer can only roll back by closing, and the searcher is tied to its writer.
+     */
+    private void rollback() throws IOException {
+        log.warn("Rolling the search index back to its last commit");
+        SearcherManager previousSearcherManager = searcherManager;
+        writer.rollback();
+        writer = openWriter();
+        searcherManager = new SearcherManager(writer, null);
+        // Searches holding one of its searchers still release it
+        previousSearcherManager.close();
+    }
+
+    private IndexWriter openWriter() throws IOException {
+        return new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    }
+
+    /**
+     * Make the changes since the last refresh visible to searches; skipped while a rebuild is running,
+     * which would otherwise publish a partial index
+     */
+    private void refresh() {
+        if (!rebuildLock.readLock().tryLock()) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index refresh failed", e);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Persist the changes since the last commit; skipped while a rebuild is running, which commits itself
+     */
+    private void commit() {
+        if (!rebuildLock.readLock().tryLock()) {
+            return;
+        }
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index commit failed", e);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Whether the index was written with an older document layout and needs a rebuild
+     */
+    public boolean isOutdated() {
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (SCHEMA_VERSION_KEY.equals(entry.getKey())) {
+                    return !SCHEMA_VERSION.equals(entry.getValue());
+                }
+            }
+        }
+        return true;
+    }
+
+    private void markCurrentSchema() {
+        writer.setLiveCommitData(Map.of(SCHEMA_VERSION_KEY, SCHEMA_VERSION).entrySet());
+    }
+
+    /**
+     * Resumes matching all terms of the keyword within one of the indexed fields, ranked by
+     * BM25 relevance weighted per field plus a boost for recently uploaded resumes.
+     *
+     * @param topK     maximum number of hits to return
+     * @param minScore hits scoring below this are dropped
+     * @return hits, best match first
+     */
+    public List<SearchHit> searchRanked(String keyword, int topK, float minScore) throws IOException {
+        QueryBuilder builder = new QueryBuilder(analyzer);
+        Map<String, Query> fieldQueries = new LinkedHashMap<>();
+        BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+        for (String field : KEYWORD_FIELDS) {
+            Query fieldQuery = builder.createBooleanQuery(field, keyword, BooleanClause.Occur.MUST);
+            if (fieldQuery != null) {
+                fieldQueries.put(field, fieldQuery);
+                anyField.add(new BoostQuery(fieldQuery, FIELD_BOOSTS.get(field)), BooleanClause.Occur.SHOULD);
+            }
+        }
+        if (fieldQueries.isEmpty()) {
+            return List.of();
+        }
+
+        // The recency clause only adds to the score of resumes that already match the keyword.
+        // Its origin is pinned to the start of the day, so scores stay stable while paging.
+        long origin = toEpochMillis(LocalDate.now().atStartOfDay());
+        long pivot = Duration.ofDays(config.getRecencyPivotDays()).toMillis();
+        Query query = new BooleanQuery.Builder()
+                .add(anyField.build(), BooleanClause.Occur.MUST)
+                .add(LongPoint.newDistanceFeatureQuery(UPLOADED_AT, config.getRecencyWeight(), origin, pivot),
+                        BooleanClause.Occur.SHOULD)
+                .build();
+
+        SearcherManager manager = searcherManager;
+        IndexSearcher searcher = manager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, topK);
+
+            // Per-field weights to report which fields a hit matched in
+            Map<String, Weight> fieldWeights = new LinkedHashMap<>();
+            for (Map.Entry<String, Query> entry : fieldQueries.entrySet()) {
+                fieldWeights.put(entry.getKey(), searcher.createWeight(
+                        searcher.rewrite(entry.getValue()), ScoreMode.COMPLETE_NO_SCORES, 1f));
+            }
+
+            List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+            StoredFields storedFields = searcher.storedFields();
+            List<SearchHit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                if (scoreDoc.score < minScore) {
+                    break;
+                }
+                LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(scoreDoc.doc, leaves));
+                List<String> matchedFields = new ArrayList<>();
+                for (Map.Entry<String, Weight> entry : fieldWeights.entrySet()) {
+                    if (entry.getValue().matches(leaf, scoreDoc.doc - leaf.docBase) != null) {
+                        matchedFields.add(entry.getKey());
+                    }
+                }
+                String id = storedFields.document(scoreDoc.doc, Set.of(ID)).get(ID);
+                hits.add(new SearchHit(id, scoreDoc.score, matchedFields));
+            }
+            return hits;
+        } finally {
+            manager.release(searcher);
+        }
+    }
+
+    /**
+     * Ids of resumes where all terms of the keyword appear within one of the indexed fields, best match first
+     */
+    public List<String> searchKeyword(String keyword, int maxHits) throws IOException {
+        QueryBuilder builder = new QueryBuilder(analyzer);
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        boolean hasClauses = false;
+        for (String field : KEYWORD_FIELDS) {
+            Query fieldQuery = builder.createBooleanQuery(field, keyword, BooleanClause.Occur.MUST);
+            if (fieldQuery != null) {
+                query.add(fieldQuery, BooleanClause.Occur.SHOULD);
+                hasClauses = true;
+            }
+        }
+        return hasClauses ? search(query.build(), maxHits) : List.of();
+    }
+
+    /**
+     * Ids of resumes whose text contains the terms of the value as a phrase, e.g. a formatted phone number
+     */
+    public List<String> searchPhrase(String value, int maxHits) throws IOException {
+        Query query = new QueryBuilder(analyzer).createPhraseQuery(TEXT, value);
+        return query != null ? search(query, maxHits) : List.of();
+    }
+
+    private List<String> search(Query query, int maxHits) throws IOException {
+        SearcherManager manager = searcherManager;
+        IndexSearcher searcher = manager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, maxHits);
+            StoredFields storedFields = searcher.storedFields();
+            List<String> ids = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                ids.add(storedFields.document(scoreDoc.doc, Set.of(ID)).get(ID));
+            }
+            return ids;
+        } finally {
+            manager.release(searcher);
+        }
+    }
+
+    private static Document toDocument(Resume resume) {
+        Document document = new Document();
+        document.add(new StringField(ID, resume.getId(), Field.Store.YES));
+        if (resume.getUploadedAt() != null) {
+            long uploadedAt = toEpochMillis(resume.getUploadedAt());
+            document.add(new LongPoint(UPLOADED_AT, uploadedAt));
+            document.add(new NumericDocValuesField(UPLOADED_AT, uploadedAt));
+        }
+        document.add(new TextField(TEXT, ResumeText.readerFromHtml(resume.getHtml())));
+        document.add(new TextField(NAME, join(Stream.of(resume.getFirstName(), resume.getLastName())), Field.Store.NO));
+        document.add(new TextField(SKILLS, skillsText(resume.getSkills()), Field.Store.NO));
+
+        List<Experience> experience = resume.getExperience() != null ? resume.getExperience() : List.of();
+        document.add(new TextField(JOB_TITLE, join(experience.stream().map(Experience::getJobTitle)), Field.Store.NO));
+        document.add(new TextField(EXPERIENCE, join(experience.stream().flatMap(e -> Stream.concat(
+                Stream.of(e.getCompanyName()),
+                e.getResponsibilitiesAndAchievements() != null ? e.getResponsibilitiesAndAchievements().stream() : Stream.empty()))),
+                Field.Store.NO));
+
+        List<Education> education = resume.getEducation() != null ? resume.getEducation() : List.of();
+        document.add(new TextField(EDUCATION, join(education.stream().flatMap(e ->
+                Stream.of(e.getDegree(), e.getMajor(), e.getInstitution()))), Field.Store.NO));
+        return document;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String skillsText(Skills skills) {
+        if (skills == null) {
+            return "";
+        }
+        return join(Stream.of(skills.getProgrammingLanguages(), skills.getFrameworks(), skills.getLibraries(),
+                        skills.getDatabases(), skills.getTools(), skills.getCloudTechnologies(), skills.getSoftSkills())
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream));
+    }
+
+    private static String join(Stream<String> values) {
+        return values.filter(Objects::nonNull).collect(Collectors.joining("\n"));
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searcherManager.close();
+        // Commits the remaining changes
+        writer.close();
+        directory.close();
+    }
+}
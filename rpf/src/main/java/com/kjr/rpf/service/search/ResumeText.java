@@ -0,0 +1,106 @@
+package com.kjr.rpf.service.search;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Recovers the plain text of a resume from its stored HTML rendition
+ */
+public final class ResumeText {
+
+    private ResumeText() {
+    }
+
+    /**
+     * Extract the text between the &lt;pre&gt; tags written by the converter and unescape it.
+     * Falls back to stripping all tags for HTML in any other shape.
+     */
+    public static String fromHtml(String html) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+        int start = html.indexOf("<pre>");
+        int end = html.lastIndexOf("</pre>");
+        String body = start >= 0 && end > start
+                ? html.substring(start + "<pre>".length(), end)
+                : html.replaceAll("<[^>]*>", " ");
+        return unescapeHtml(body);
+    }
+
+    /**
+     * Same text as {@link #fromHtml(String)}, unescaped on the fly while reading
+     * instead of copying the content
+     */
+    public static Reader readerFromHtml(String html) {
+        if (html == null || html.isEmpty()) {
+            return new StringReader("");
+        }
+        int start = html.indexOf("<pre>");
+        int end = html.lastIndexOf("</pre>");
+        if (start < 0 || end <= start) {
+            return new StringReader(fromHtml(html));
+        }
+        return new UnescapingReader(html, start + "<pre>".length(), end);
+    }
+
+    private static String unescapeHtml(String text) {
+        return text.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&");
+    }
+
+    /**
+     * Reads a region of escaped text, decoding the entities written by the converter
+     */
+    private static final class UnescapingReader extends Reader {
+
+        private static final String[] ENTITIES = {"&lt;", "&gt;", "&quot;", "&#39;", "&amp;"};
+        private static final char[] CHARS = {'<', '>', '"', '\'', '&'};
+
+        private final String text;
+        private final int end;
+        private int position;
+
+        UnescapingReader(String text, int start, int end) {
+            this.text = text;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= end) {
+                return -1;
+            }
+            int count = 0;
+            while (count < length && position < end) {
+                char c = text.charAt(position);
+                if (c == '&') {
+                    c = decode();
+                } else {
+                    position++;
+                }
+                buffer[offset + count++] = c;
+            }
+            return count;
+        }
+
+        private char decode() {
+            for (int i = 0; i < ENTITIES.length; i++) {
+                if (text.startsWith(ENTITIES[i], position) && position + ENTITIES[i].length() <= end) {
+                    position += ENTITIES[i].length();
+                    return CHARS[i];
+                }
+            }
+            position++;
+            return '&';
+        }
+
+        @Override
+        public void close() {
+            position = end;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.kjr.rpf.service.search;
+
+import java.util.List;
+
+/**
+ * A resume matched by a ranked search, with its relevance score and the index fields the query matched in
+ */
+public record SearchHit(String id, float score, List<String> matchedFields) {
+}
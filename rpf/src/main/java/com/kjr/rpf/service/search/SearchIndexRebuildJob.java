@@ -0,0 +1,70 @@
+package com.kjr.rpf.service.search;
+
+import com.kjr.rpf.config.SearchIndexConfig;
+import com.kjr.rpf.model.Resume;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the search index from MongoDB, e.g. after the index directory was lost or corrupted
+ */
+@Component
+@Slf4j
+public class SearchIndexRebuildJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final ResumeSearchIndex searchIndex;
+    private final SearchIndexConfig searchIndexConfig;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Autowired
+    public SearchIndexRebuildJob(MongoTemplate mongoTemplate, ResumeSearchIndex searchIndex,
+                                 SearchIndexConfig searchIndexConfig) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndex = searchIndex;
+        this.searchIndexConfig = searchIndexConfig;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!searchIndexConfig.isRebuildIfEmpty() || (searchIndex.size() > 0 && !searchIndex.isOutdated())) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Search index rebuild failed", e);
+        }
+    }
+
+    /**
+     * Re-index every resume in the collection
+     * @return the number of indexed resumes, or -1 if a rebuild is already running
+     */
+    public int rebuild() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Search index rebuild already running");
+            return -1;
+        }
+        Query query = new Query();
+        query.fields().exclude("maskedHtmlContentGzip", "maskedHtmlContent");
+        try (Stream<Resume> resumes = mongoTemplate.stream(query, Resume.class)) {
+            int indexed = searchIndex.rebuild(resumes.iterator());
+            log.info("Search index rebuilt with {} resumes", indexed);
+            return indexed;
+        } finally {
+            running.set(false);
+        }
+    }
+}
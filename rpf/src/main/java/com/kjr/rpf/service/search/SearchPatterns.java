@@ -0,0 +1,85 @@
+package com.kjr.rpf.service.search;
+
+import com.kjr.rpf.config.SearchQueryConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Turns user input into MongoDB match expressions that are safe to run: input is validated, and only ever
+ * matched literally. Prefix searches are ranges rather than regexes, so an index gives them tight bounds.
+ */
+@Component
+public class SearchPatterns {
+
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    // Has the highest primary weight in the Unicode collation, meant for the upper end of prefix ranges
+    private static final char PREFIX_END = '\uFFFF';
+
+    // A quantified group that is quantified again, e.g. (a+)+ or (\w*)*, the shape of catastrophic backtracking
+    private static final Pattern NESTED_QUANTIFIER = Pattern.compile("\\([^)]*[+*}][^)]*\\)\\s*[+*{]");
+
+    private final SearchQueryConfig config;
+
+    @Autowired
+    public SearchPatterns(SearchQueryConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Check a search term before it is used in a query
+     * @return the trimmed term
+     * @throws IllegalArgumentException if the term is too long, contains control characters
+     *                                  or is written like a catastrophically backtracking regex
+     */
+    public String check(String term) {
+        String trimmed = term.trim();
+        if (trimmed.length() > config.getMaxTermLength()) {
+            throw new IllegalArgumentException("Search term longer than " + config.getMaxTermLength() + " characters");
+        }
+        if (trimmed.chars().anyMatch(Character::isISOControl)) {
+            throw new IllegalArgumentException("Search term contains control characters");
+        }
+        if (NESTED_QUANTIFIER.matcher(trimmed).find()) {
+            throw new IllegalArgumentException("Unsupported search pattern: " + trimmed);
+        }
+        return trimmed;
+    }
+
+    /**
+     * Array elements whose field starts with the term, as a range from the term to the term followed by
+     * U+FFFF, which sorts after every character. Under the case-insensitive collation of the repository's
+     * queries and indexes the range ignores case, and the index on {@code array.field} is scanned
+     * only from the first to the last matching key. $elemMatch lets the planner apply both ends of the range
+     * to the multikey index.
+     */
+    public Criteria startsWith(String array, String field, String term) {
+        String prefix = check(term);
+        return Criteria.where(array).elemMatch(Criteria.where(field).gte(prefix).lt(prefix + PREFIX_END));
+    }
+
+    /**
+     * Field values containing the term, ignoring case; for fields without an index, this scans every value
+     */
+    public Criteria contains(String field, String term) {
+        return Criteria.where(field).regex(escape(check(term)), "i");
+    }
+
+    /**
+     * Escape every regex metacharacter, so the text matches only itself
+     */
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.kjr.rpf.service.storage;
+
+import com.kjr.rpf.config.StorageConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Moves the legacy embedded originalFileData binaries of existing resumes into the BlobStore
+ */
+@Component
+@Slf4j
+public class BlobMigrationJob {
+
+    private static final String COLLECTION = "resumes";
+    private static final String LEGACY_FIELD = "originalFileData";
+
+    private final MongoTemplate mongoTemplate;
+    private final BlobStore blobStore;
+    private final StorageConfig storageConfig;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Autowired
+    public BlobMigrationJob(MongoTemplate mongoTemplate, BlobStore blobStore, StorageConfig storageConfig) {
+        this.mongoTemplate = mongoTemplate;
+        this.blobStore = blobStore;
+        this.storageConfig = storageConfig;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!storageConfig.isMigrateOnStartup()) {
+            return;
+        }
+        try {
+            migrate();
+        } catch (Exception e) {
+            log.error("Blob migration failed", e);
+        }
+    }
+
+    /**
+     * Migrate all documents that still embed their original file
+     * @return the number of migrated documents, or -1 if a migration is already running
+     */
+    public int migrate() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Blob migration already running");
+            return -1;
+        }
+        int migrated = 0;
+        try {
+            Query query = new Query(Criteria.where(LEGACY_FIELD).exists(true));
+            query.fields().include("_id", "originalFileName", "originalFileType", LEGACY_FIELD);
+            // Every document carries a binary of up to several MB, so keep the batches small
+            query.cursorBatchSize(16);
+
+            try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+                for (Document document : (Iterable<Document>) documents::iterator) {
+                    if (migrateDocument(document)) {
+                        migrated++;
+                    }
+                }
+            }
+            log.info("Blob migration completed, {} documents migrated", migrated);
+            return migrated;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean migrateDocument(Document document) {
+        Object id = document.get("_id");
+        byte[] data = toBytes(document.get(LEGACY_FIELD));
+
+        Update update = new Update().unset(LEGACY_FIELD).inc("revision", 1);
+        try {
+            if (data != null) {
+                String blobId = blobStore.store(new ByteArrayInputStream(data),
+                        document.getString("originalFileName"), document.getString("originalFileType"));
+                update.set("originalFileBlobId", blobId);
+            }
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)), update, COLLECTION);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to migrate original file of resume {}", id, e);
+            return false;
+        }
+    }
+
+    private static byte[] toBytes(Object value) {
+        if (value instanceof Binary binary) {
+            return binary.getData();
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.kjr.rpf.service.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Storage for original uploaded files, kept outside the resume documents
+ * so that listing and searching never pull binaries off the wire.
+ */
+public interface BlobStore {
+
+    /**
+     * Store the content of the stream and return the id under which it can be read back
+     */
+    String store(InputStream content, String fileName, String contentType) throws IOException;
+
+    /**
+     * Open a stored blob for reading
+     * @throws java.io.FileNotFoundException if no blob exists for the id
+     */
+    InputStream open(String blobId) throws IOException;
+
+    /**
+     * Write {@code length} bytes of a stored blob, starting at {@code position}, to the stream.
+     * Reads through {@link #open(String)} in fixed-size chunks, so only the buffer is held in memory.
+     * @throws java.io.FileNotFoundException if no blob exists for the id
+     */
+    default void copyRange(String blobId, long position, long length, OutputStream out) throws IOException {
+        try (InputStream in = open(blobId)) {
+            in.skipNBytes(position);
+            byte[] buffer = new byte[64 * 1024];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new EOFException("Blob " + blobId + " ended " + remaining + " bytes before the requested range");
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    /**
+     * Delete a stored blob, ignoring ids that do not exist
+     */
+    void delete(String blobId) throws IOException;
+}
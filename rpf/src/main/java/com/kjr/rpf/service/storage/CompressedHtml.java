@@ -0,0 +1,95 @@
+package com.kjr.rpf.service.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip encoding of stored resume HTML. The stored bytes are a complete gzip stream,
+ * so they can be sent as-is to clients accepting {@code Content-Encoding: gzip}.
+ */
+public final class CompressedHtml {
+
+    private CompressedHtml() {
+    }
+
+    /**
+     * Gzip the UTF-8 encoding of the HTML at the best compression level; it is written once and read many times
+     */
+    public static byte[] compress(String html) {
+        if (html == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, html.length() / 4));
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes, 8192) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }, StandardCharsets.UTF_8)) {
+            writer.write(html);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static String decompress(byte[] gzip) {
+        if (gzip == null) {
+            return null;
+        }
+        try (InputStream in = open(gzip)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt compressed HTML", e);
+        }
+    }
+
+    /**
+     * Stream of the decompressed UTF-8 bytes, for clients that do not accept gzip
+     */
+    public static InputStream open(byte[] gzip) throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(gzip), 8192);
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header value allows gzip (and does not refuse it with q=0)
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            boolean accepted = parts.length < 2 || !isZeroQuality(parts[1]);
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        String[] nameValue = parameter.trim().split("=");
+        if (nameValue.length != 2 || !nameValue[0].trim().equalsIgnoreCase("q")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(nameValue[1].trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.kjr.rpf.service.storage;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * BlobStore backed by MongoDB GridFS (default)
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "gridfs", matchIfMissing = true)
+public class GridFsBlobStore implements BlobStore {
+
+    // Chunks of the default bucket, which GridFsTemplate stores into
+    private static final String CHUNKS = "fs.chunks";
+
+    private final GridFsTemplate gridFsTemplate;
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public GridFsBlobStore(GridFsTemplate gridFsTemplate, MongoTemplate mongoTemplate) {
+        this.gridFsTemplate = gridFsTemplate;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public String store(InputStream content, String fileName, String contentType) throws IOException {
+        ObjectId id = gridFsTemplate.store(content, fileName, contentType);
+        return id.toHexString();
+    }
+
+    @Override
+    public InputStream open(String blobId) throws IOException {
+        GridFSFile file = findFile(blobId);
+        if (file == null) {
+            throw new FileNotFoundException("Blob not found: " + blobId);
+        }
+        return gridFsTemplate.getResource(file).getInputStream();
+    }
+
+    /**
+     * Reads only the chunks overlapping the range, starting at chunk {@code position / chunkSize},
+     * through the {@code files_id, n} index GridFS keeps on its chunks
+     */
+    @Override
+    public void copyRange(String blobId, long position, long length, OutputStream out) throws IOException {
+        GridFSFile file = findFile(blobId);
+        if (file == null) {
+            throw new FileNotFoundException("Blob not found: " + blobId);
+        }
+        if (length <= 0) {
+            return;
+        }
+        long chunkSize = file.getChunkSize();
+        int firstChunk = (int) (position / chunkSize);
+        int lastChunk = (int) ((position + length - 1) / chunkSize);
+        Query chunks = query(where("files_id").is(file.getObjectId()).and("n").gte(firstChunk).lte(lastChunk))
+                .with(Sort.by("n"));
+        chunks.fields().include("n", "data");
+
+        long remaining = length;
+        int offset = (int) (position % chunkSize);
+        int expected = firstChunk;
+        try (Stream<Document> stream = mongoTemplate.stream(chunks, Document.class, CHUNKS)) {
+            Iterator<Document> iterator = stream.iterator();
+            while (remaining > 0 && iterator.hasNext()) {
+                Document chunk = iterator.next();
+                if (chunk.getInteger("n") != expected) {
+                    throw new IOException("Blob " + blobId + " is missing chunk " + expected);
+                }
+                byte[] data = chunk.get("data", Binary.class).getData();
+                int count = (int) Math.min(data.length - offset, remaining);
+                if (count <= 0) {
+                    break;
+                }
+                out.write(data, offset, count);
+                remaining -= count;
+                offset = 0;
+                expected++;
+            }
+        }
+        if (remaining > 0) {
+            throw new EOFException("Blob " + blobId + " ended " + remaining + " bytes before the requested range");
+        }
+    }
+
+    @Override
+    public void delete(String blobId) {
+        if (ObjectId.isValid(blobId)) {
+            gridFsTemplate.delete(query(where("_id").is(new ObjectId(blobId))));
+        }
+    }
+
+    private GridFSFile findFile(String blobId) {
+        if (!ObjectId.isValid(blobId)) {
+            return null;
+        }
+        return gridFsTemplate.findOne(query(where("_id").is(new ObjectId(blobId))));
+    }
+}
@@ -0,0 +1,125 @@
+package com.kjr.rpf.service.storage;
+
+import com.kjr.rpf.config.StorageConfig;
+import com.kjr.rpf.service.cache.ResumeHtmlCache;
+import com.kjr.rpf.service.conversion.ResumeHtmlPage;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Rewrites the HTML of resumes stored in an older shape into the current one:
+ * gzip compressed, and a body fragment without the page shell and inline stylesheet
+ */
+@Component
+@Slf4j
+public class HtmlStorageMigrationJob {
+
+    private static final String COLLECTION = "resumes";
+    private static final String[][] FIELDS = {
+            {"htmlContent", "htmlContentGzip"},
+            {"maskedHtmlContent", "maskedHtmlContentGzip"}
+    };
+
+    private final MongoTemplate mongoTemplate;
+    private final StorageConfig storageConfig;
+    private final ResumeHtmlCache htmlCache;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Autowired
+    public HtmlStorageMigrationJob(MongoTemplate mongoTemplate, StorageConfig storageConfig, ResumeHtmlCache htmlCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.storageConfig = storageConfig;
+        this.htmlCache = htmlCache;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!storageConfig.isMigrateHtmlOnStartup()) {
+            return;
+        }
+        try {
+            if (mongoTemplate.exists(outdated(), COLLECTION)) {
+                migrate();
+            }
+        } catch (Exception e) {
+            log.error("HTML storage migration failed", e);
+        }
+    }
+
+    /**
+     * Compress and strip the page shell from the HTML of all documents in an older shape
+     * @return the number of migrated documents, or -1 if a migration is already running
+     */
+    public int migrate() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("HTML storage migration already running");
+            return -1;
+        }
+        int migrated = 0;
+        long storedBytes = 0;
+        long migratedBytes = 0;
+        try {
+            Query query = outdated();
+            query.fields().include("_id", "revision", FIELDS[0][0], FIELDS[0][1], FIELDS[1][0], FIELDS[1][1]);
+            query.cursorBatchSize(16);
+
+            try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+                for (Document document : (Iterable<Document>) documents::iterator) {
+                    Update update = new Update().set("htmlFormat", ResumeHtmlPage.FRAGMENT_FORMAT);
+                    for (String[] field : FIELDS) {
+                        String html = document.getString(field[0]);
+                        byte[] stored = bytes(document.get(field[1]));
+                        if (html == null && stored != null) {
+                            html = CompressedHtml.decompress(stored);
+                        }
+                        if (html == null) {
+                            continue;
+                        }
+                        byte[] gzip = CompressedHtml.compress(ResumeHtmlPage.fragment(html));
+                        update.set(field[1], gzip).unset(field[0]);
+                        storedBytes += stored != null ? stored.length : html.length();
+                        migratedBytes += gzip.length;
+                    }
+                    // The served page changes (linked instead of inline stylesheet), so the revision does too.
+                    // A document rewritten meanwhile by a conversion or re-mask is left alone.
+                    Query unchanged = new Query(Criteria.where("_id").is(document.get("_id"))
+                            .and("revision").is(document.get("revision")));
+                    if (mongoTemplate.updateFirst(unchanged, update.inc("revision", 1), COLLECTION).getModifiedCount() > 0) {
+                        htmlCache.invalidate(String.valueOf(document.get("_id")));
+                        migrated++;
+                    }
+                }
+            }
+            log.info("HTML storage migration completed, {} documents migrated, {} bytes stored as {} bytes",
+                    migrated, storedBytes, migratedBytes);
+            return migrated;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static byte[] bytes(Object value) {
+        return value instanceof Binary binary ? binary.getData() : (byte[]) value;
+    }
+
+    private static Query outdated() {
+        return new Query(new Criteria().orOperator(
+                Criteria.where(FIELDS[0][0]).type(2),
+                Criteria.where(FIELDS[1][0]).type(2),
+                Criteria.where(FIELDS[0][1]).exists(true).and("htmlFormat").ne(ResumeHtmlPage.FRAGMENT_FORMAT)));
+    }
+}
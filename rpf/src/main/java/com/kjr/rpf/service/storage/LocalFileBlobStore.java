@@ -0,0 +1,126 @@
+package com.kjr.rpf.service.storage;
+
+import com.kjr.rpf.config.StorageConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed BlobStore on the local filesystem.
+ * Blobs are stored under their SHA-256 hash, so identical files share one copy on disk.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+@Slf4j
+public class LocalFileBlobStore implements BlobStore {
+
+    private static final Pattern BLOB_ID = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    @Autowired
+    public LocalFileBlobStore(StorageConfig storageConfig) throws IOException {
+        this.root = Paths.get(storageConfig.getLocalPath()).toAbsolutePath();
+        Files.createDirectories(root.resolve("tmp"));
+        log.info("Local blob store at {}", root);
+    }
+
+    @Override
+    public String store(InputStream content, String fileName, String contentType) throws IOException {
+        Path temp = Files.createTempFile(root.resolve("tmp"), "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                content.transferTo(out);
+            }
+            String blobId = HexFormat.of().formatHex(digest.digest());
+
+            Path target = resolve(blobId);
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same content already stored
+                log.debug("Blob {} already exists, reusing stored copy", blobId);
+            }
+            return blobId;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream open(String blobId) throws IOException {
+        Path path = resolve(blobId);
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("Blob not found: " + blobId);
+        }
+        return Files.newInputStream(path);
+    }
+
+    /**
+     * Copies with {@link FileChannel#transferTo}, which lets the kernel move the bytes when the target allows it
+     * and otherwise copies through a small fixed buffer, never the whole file
+     */
+    @Override
+    public void copyRange(String blobId, long position, long length, OutputStream out) throws IOException {
+        try (FileChannel file = FileChannel.open(resolve(blobId), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long end = position + length;
+            while (position < end) {
+                long transferred = file.transferTo(position, end - position, target);
+                if (transferred <= 0 && position >= file.size()) {
+                    throw new EOFException("Blob " + blobId + " ended " + (end - position) + " bytes before the requested range");
+                }
+                position += transferred;
+            }
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("Blob not found: " + blobId);
+        }
+    }
+
+    @Override
+    public void delete(String blobId) throws IOException {
+        Files.deleteIfExists(resolve(blobId));
+    }
+
+    /**
+     * Map a blob id to its path, fanned out by the first two hash bytes
+     */
+    private Path resolve(String blobId) throws IOException {
+        if (blobId == null || !BLOB_ID.matcher(blobId).matches()) {
+            throw new FileNotFoundException("Invalid blob id: " + blobId);
+        }
+        return root.resolve(blobId.substring(0, 2)).resolve(blobId.substring(2, 4)).resolve(blobId);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
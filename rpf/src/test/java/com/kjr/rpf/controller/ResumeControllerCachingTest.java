@@ -0,0 +1,109 @@
+package com.kjr.rpf.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.ResumeService;
+import com.kjr.rpf.service.conversion.BulkResumeImporter;
+import com.kjr.rpf.service.conversion.ResumeConversionQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A cached resume is revalidated without loading the document, and its ETag changes with every write
+ * and between the masked and the full representation
+ */
+class ResumeControllerCachingTest {
+
+    private static final String ID = "65f0c0ffee0000000000abcd";
+
+    private final ResumeService resumeService = mock(ResumeService.class);
+    private final ResumeController controller = new ResumeController(resumeService,
+            mock(ResumeConversionQueue.class), mock(BulkResumeImporter.class), new ObjectMapper());
+
+    @BeforeEach
+    @AfterEach
+    void anonymous() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void matchingEtagIsNotModified() {
+        when(resumeService.getResumeValidators(ID)).thenReturn(Optional.of(resume(3)));
+        when(resumeService.getResumeById(ID)).thenReturn(Optional.of(resume(3)));
+        String etag = get(null).getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<?> revalidated = get(etag);
+
+        assertEquals(304, revalidated.getStatusCode().value());
+        assertEquals(ResumeValidators.PRIVATE.getHeaderValue(), revalidated.getHeaders().getCacheControl());
+        // Only the validators are read, not the document
+        verify(resumeService, never()).getResumeById(ID);
+    }
+
+    @Test
+    void etagChangesWithTheRevision() {
+        when(resumeService.getResumeValidators(ID)).thenReturn(Optional.of(resume(3)));
+        String etag = get(null).getHeaders().getETag();
+
+        when(resumeService.getResumeValidators(ID)).thenReturn(Optional.of(resume(4)));
+        when(resumeService.getResumeById(ID)).thenReturn(Optional.of(resume(4)));
+        ResponseEntity<?> updated = get(etag);
+
+        assertEquals(200, updated.getStatusCode().value());
+        assertNotEquals(etag, updated.getHeaders().getETag());
+    }
+
+    @Test
+    void etagChangesWithTheRepresentation() {
+        when(resumeService.getResumeValidators(ID)).thenReturn(Optional.of(resume(3)));
+        when(resumeService.getResumeById(ID)).thenReturn(Optional.of(resume(3)));
+        String masked = get(null).getHeaders().getETag();
+        assertTrue(masked.contains("json-masked"), masked);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "recruiter", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        ResponseEntity<?> full = get(masked);
+
+        // A masked copy cached before signing in is not revalidated as the full resume
+        assertEquals(200, full.getStatusCode().value());
+        assertTrue(full.getHeaders().getETag().contains("json-full"), full.getHeaders().getETag());
+        assertEquals(304, get(full.getHeaders().getETag()).getStatusCode().value());
+    }
+
+    private ResponseEntity<?> get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resumes/api/" + ID);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return controller.getResumeById(ID, new ServletWebRequest(request, new MockHttpServletResponse()));
+    }
+
+    private static Resume resume(int revision) {
+        Resume resume = new Resume();
+        resume.setId(ID);
+        resume.setContentHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        resume.setRevision(revision);
+        return resume;
+    }
+}
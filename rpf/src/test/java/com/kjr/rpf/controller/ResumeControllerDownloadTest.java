@@ -0,0 +1,132 @@
+package com.kjr.rpf.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.ResumeService;
+import com.kjr.rpf.service.conversion.BulkResumeImporter;
+import com.kjr.rpf.service.conversion.ResumeConversionQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Range requests on original file downloads: a single range is served as 206 Partial Content,
+ * a range outside the file is 416, and a stale If-Range gets the whole file
+ */
+class ResumeControllerDownloadTest {
+
+    private static final String ID = "65f0c0ffee0000000000abcd";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private final ResumeService resumeService = mock(ResumeService.class);
+    private final ResumeController controller = new ResumeController(resumeService,
+            mock(ResumeConversionQueue.class), mock(BulkResumeImporter.class), new ObjectMapper());
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SecurityContextHolder.clearContext();
+        Resume resume = new Resume();
+        resume.setId(ID);
+        resume.setOriginalFileName("resume.txt");
+        resume.setOriginalFileType("text/plain");
+        resume.setOriginalFileSize((long) CONTENT.length);
+        resume.setContentHash(HASH);
+        resume.setUploadedAt(LocalDateTime.of(2024, 3, 1, 9, 0));
+        when(resumeService.getResumeMetadata(ID)).thenReturn(Optional.of(resume));
+        doAnswer(invocation -> {
+            long position = invocation.getArgument(1);
+            long length = invocation.getArgument(2);
+            OutputStream out = invocation.getArgument(3);
+            out.write(CONTENT, (int) position, (int) length);
+            return null;
+        }).when(resumeService).copyOriginalFile(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void suffixRangeIsPartialContent() throws Exception {
+        MockHttpServletResponse response = download("bytes=-4", null);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 6-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 6, 10), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangeEndPastTheFileIsCut() throws Exception {
+        MockHttpServletResponse response = download("bytes=7-100", null);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 7-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 7, 10), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangeStartPastTheFileIsNotSatisfiable() throws Exception {
+        MockHttpServletResponse response = download("bytes=10-", null);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        verify(resumeService, never()).copyOriginalFile(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void staleIfRangeGetsTheWholeFile() throws Exception {
+        MockHttpServletResponse response = download("bytes=0-3", "\"an-older-upload\"");
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void matchingIfRangeIsPartialContent() throws Exception {
+        MockHttpServletResponse response = download("bytes=2-3", "\"" + HASH + "\"");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-3/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 2, 4), response.getContentAsByteArray());
+    }
+
+    /**
+     * Download the file as the preview of a just uploaded resume, which needs no sign-in
+     */
+    private MockHttpServletResponse download(String range, String ifRange) throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("previewResumeId", ID);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resumes/download/" + ID);
+        request.addHeader(HttpHeaders.RANGE, range);
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(controller.downloadResume(ID, null, "true", session, request, response,
+                new ServletWebRequest(request, response), new RedirectAttributesModelMap()));
+        return response;
+    }
+}
@@ -0,0 +1,139 @@
+package com.kjr.rpf.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kjr.rpf.dto.ResumePage;
+import com.kjr.rpf.dto.ResumeSearchCriteria;
+import com.kjr.rpf.dto.ResumeSummary;
+import com.kjr.rpf.model.Education;
+import com.kjr.rpf.model.Experience;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.service.ResumeService;
+import com.kjr.rpf.service.conversion.BulkResumeImporter;
+import com.kjr.rpf.service.conversion.ResumeConversionQueue;
+import com.kjr.rpf.service.storage.CompressedHtml;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Responses to anonymous users must not contain any personal information the extraction found
+ */
+class ResumeControllerMaskingTest {
+
+    private static final String ID = "65f0c0ffee0000000000abcd";
+    private static final List<String> PERSONAL_INFO = List.of(
+            "jane.doe@example.com", "555-123-4567", "linkedin.com/in/janedoe", "janedoe.dev",
+            "Acme Corp", "Staff Engineer", "University of Texas", "12 Elm Street", "<p>Jane Doe");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ResumeService resumeService = mock(ResumeService.class);
+    private final ResumeController controller = new ResumeController(resumeService,
+            mock(ResumeConversionQueue.class), mock(BulkResumeImporter.class), objectMapper);
+
+    @BeforeEach
+    void anonymous() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resumeByIdIsMasked() throws Exception {
+        when(resumeService.getResumeValidators(ID)).thenReturn(Optional.of(resume()));
+        when(resumeService.getResumeById(ID)).thenReturn(Optional.of(resume()));
+        WebRequest webRequest = mock(WebRequest.class);
+
+        ResponseEntity<?> response = controller.getResumeById(ID, webRequest);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertMasked(objectMapper.writeValueAsString(response.getBody()));
+    }
+
+    @Test
+    void resumeListIsMasked() throws Exception {
+        when(resumeService.getResumePage(any(), any(), any())).thenReturn(page());
+
+        ResponseEntity<?> response = controller.getAllResumes(null, null, Sort.Direction.DESC);
+
+        assertMasked(objectMapper.writeValueAsString(response.getBody()));
+    }
+
+    @Test
+    void searchResultsAreMasked() throws Exception {
+        when(resumeService.searchResumes(any())).thenReturn(page());
+
+        ResponseEntity<?> response = controller.searchResumesApi(new ResumeSearchCriteria());
+
+        assertMasked(objectMapper.writeValueAsString(response.getBody()));
+    }
+
+    @Test
+    void exportIsMasked() throws Exception {
+        when(resumeService.streamSummaries(any())).thenAnswer(invocation -> Stream.of(summary()));
+
+        StreamingResponseBody body = controller.exportNdjson(null).getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        assertMasked(out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static void assertMasked(String json) {
+        for (String value : PERSONAL_INFO) {
+            assertFalse(json.contains(value), () -> value + " in " + json);
+        }
+        assertTrue(json.contains("jan*****@example.com"), json);
+    }
+
+    private static Resume resume() {
+        Resume resume = new Resume();
+        resume.setId(ID);
+        resume.setFirstName("Jane");
+        resume.setLastName("Doe");
+        resume.setEmail("jane.doe@example.com");
+        resume.setPhone("555-123-4567");
+        resume.setLinkedinUrl("https://www.linkedin.com/in/janedoe");
+        resume.setWebsiteUrl("https://janedoe.dev");
+        resume.setProfessionalSummary("Reach me at jane.doe@example.com or 555-123-4567, 12 Elm Street.");
+        resume.setHtmlContentGzip(CompressedHtml.compress("<p>Jane Doe, jane.doe@example.com</p>"));
+
+        Experience experience = new Experience();
+        experience.setCompanyName("Acme Corp");
+        experience.setJobTitle("Staff Engineer");
+        resume.setExperience(List.of(experience));
+        Education education = new Education();
+        education.setInstitution("University of Texas");
+        resume.setEducation(List.of(education));
+        return resume;
+    }
+
+    private static ResumeSummary summary() {
+        ResumeSummary summary = new ResumeSummary();
+        summary.setId(ID);
+        summary.setFirstName("Jane");
+        summary.setEmail("jane.doe@example.com");
+        summary.setPhone("555-123-4567");
+        summary.setProfessionalSummary("Reach me at jane.doe@example.com or 555-123-4567, 12 Elm Street.");
+        return summary;
+    }
+
+    private static ResumePage page() {
+        return new ResumePage(new ArrayList<>(List.of(summary())), null, false);
+    }
+}
@@ -0,0 +1,85 @@
+package com.kjr.rpf.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kjr.rpf.config.PaginationConfig;
+import com.kjr.rpf.config.SearchIndexConfig;
+import com.kjr.rpf.dto.ContinuationToken;
+import com.kjr.rpf.dto.ResumePage;
+import com.kjr.rpf.dto.ResumeSearchCriteria;
+import com.kjr.rpf.repository.ResumeRepository;
+import com.kjr.rpf.service.ResumeService;
+import com.kjr.rpf.service.cache.ResumeHtmlCache;
+import com.kjr.rpf.service.conversion.BulkResumeImporter;
+import com.kjr.rpf.service.conversion.ResumeConversionQueue;
+import com.kjr.rpf.service.conversion.ResumeHtmlConverter;
+import com.kjr.rpf.service.conversion.ResumeHtmlPage;
+import com.kjr.rpf.service.extraction.ResumeFieldExtractor;
+import com.kjr.rpf.service.masking.PersonalInfoMasker;
+import com.kjr.rpf.service.search.ResumeQueryCompiler;
+import com.kjr.rpf.service.search.ResumeSearchIndex;
+import com.kjr.rpf.service.storage.BlobStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Continuation tokens reach the repository decoded, and a tampered token is a bad request
+ * that never reaches the database
+ */
+class ResumeControllerPagingTest {
+
+    private static final String ID = "65f0c0ffee0000000000abcd";
+
+    private final ResumeRepository resumeRepository = mock(ResumeRepository.class);
+    private final ResumeController controller = new ResumeController(
+            new ResumeService(resumeRepository, mock(BlobStore.class), new PaginationConfig(),
+                    mock(ResumeQueryCompiler.class), mock(ResumeSearchIndex.class), new SearchIndexConfig(),
+                    mock(ResumeHtmlConverter.class), mock(PersonalInfoMasker.class), mock(ResumeHtmlCache.class),
+                    mock(ResumeHtmlPage.class), mock(ResumeFieldExtractor.class)),
+            mock(ResumeConversionQueue.class), mock(BulkResumeImporter.class), new ObjectMapper());
+
+    @Test
+    void passesTheDecodedTokenOn() {
+        ContinuationToken token = new ContinuationToken(LocalDateTime.of(2024, 3, 1, 9, 0), ID);
+        when(resumeRepository.findSummaryPage(any(), any(), anyInt(), any()))
+                .thenReturn(new ResumePage(new ArrayList<>(), null, false));
+
+        ResponseEntity<?> response = controller.getAllResumes(token.encode(), 10, Sort.Direction.ASC);
+
+        assertEquals(200, response.getStatusCode().value());
+        verify(resumeRepository).findSummaryPage(null, token, 10, Sort.Direction.ASC);
+    }
+
+    @Test
+    void tamperedTokensAreBadRequests() {
+        List<String> tampered = List.of("not a token!", encode("k1|2024-03-01T09:00|"), encode("x1|2024-03-01T09:00|" + ID),
+                encode("k1|tomorrow|" + ID), encode("r1|NaN?|" + ID));
+        for (String token : tampered) {
+            assertEquals(400, controller.getAllResumes(token, null, null).getStatusCode().value(), token);
+
+            ResumeSearchCriteria criteria = new ResumeSearchCriteria();
+            criteria.setCity("Austin");
+            criteria.setContinuationToken(token);
+            assertEquals(400, controller.searchResumesApi(criteria).getStatusCode().value(), token);
+        }
+        verifyNoInteractions(resumeRepository);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,121 @@
+package com.kjr.rpf.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kjr.rpf.config.PaginationConfig;
+import com.kjr.rpf.config.SearchIndexConfig;
+import com.kjr.rpf.config.SearchQueryConfig;
+import com.kjr.rpf.dto.ResumeSummary;
+import com.kjr.rpf.repository.ResumeRepository;
+import com.kjr.rpf.service.ResumeService;
+import com.kjr.rpf.service.cache.ResumeHtmlCache;
+import com.kjr.rpf.service.conversion.BulkResumeImporter;
+import com.kjr.rpf.service.conversion.ResumeConversionQueue;
+import com.kjr.rpf.service.conversion.ResumeHtmlConverter;
+import com.kjr.rpf.service.conversion.ResumeHtmlPage;
+import com.kjr.rpf.service.extraction.ContactTokens;
+import com.kjr.rpf.service.extraction.ResumeFieldExtractor;
+import com.kjr.rpf.service.extraction.SkillsDictionary;
+import com.kjr.rpf.service.masking.PersonalInfoMasker;
+import com.kjr.rpf.service.search.ResumeQueryCompiler;
+import com.kjr.rpf.service.search.ResumeSearchIndex;
+import com.kjr.rpf.service.search.SearchHit;
+import com.kjr.rpf.service.search.SearchPatterns;
+import com.kjr.rpf.service.storage.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.ui.ExtendedModelMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The search form copies its query into every criterion in match mode ANY, and still gets results ranked
+ * by keyword relevance, with the resumes matching only the other criteria merged in
+ */
+class ResumeControllerSearchTest {
+
+    private static final String KEYWORD_AND_SKILL = "65f0c0ffee0000000000000a";
+    private static final String KEYWORD_ONLY = "65f0c0ffee0000000000000b";
+    private static final String CITY_AND_SKILL = "65f0c0ffee0000000000000c";
+
+    private final ResumeRepository resumeRepository = mock(ResumeRepository.class);
+    private final ResumeSearchIndex searchIndex = mock(ResumeSearchIndex.class);
+    private ResumeController controller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        SecurityContextHolder.clearContext();
+        SearchIndexConfig searchIndexConfig = new SearchIndexConfig();
+        ResumeQueryCompiler queryCompiler = new ResumeQueryCompiler(searchIndex, searchIndexConfig,
+                new SkillsDictionary(new ClassPathResource("extraction/skills.txt")), new ContactTokens("1"),
+                new SearchPatterns(new SearchQueryConfig()));
+        controller = new ResumeController(
+                new ResumeService(resumeRepository, mock(BlobStore.class), new PaginationConfig(),
+                        queryCompiler, searchIndex, searchIndexConfig,
+                        mock(ResumeHtmlConverter.class), mock(PersonalInfoMasker.class), mock(ResumeHtmlCache.class),
+                        mock(ResumeHtmlPage.class), mock(ResumeFieldExtractor.class)),
+                mock(ResumeConversionQueue.class), mock(BulkResumeImporter.class), new ObjectMapper());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void formSearchIsRanked() throws IOException {
+        when(searchIndex.searchRanked(eq("java"), anyInt(), anyFloat())).thenReturn(List.of(
+                new SearchHit(KEYWORD_AND_SKILL, 2.0f, List.of("skills")),
+                new SearchHit(KEYWORD_ONLY, 1.5f, List.of("text"))));
+        when(resumeRepository.findSummaries(any(Criteria.class), any(Criteria.class), anyInt(), anyList()))
+                .thenReturn(new ArrayList<>(List.of(
+                        summary(KEYWORD_ONLY, 0), summary(CITY_AND_SKILL, 2), summary(KEYWORD_AND_SKILL, 1))));
+
+        ExtendedModelMap model = new ExtendedModelMap();
+        assertEquals("search-results", controller.searchResumes("java", null, null, null, model));
+
+        List<ResumeSummary> results = (List<ResumeSummary>) model.get("resumes");
+        // Keyword relevance plus one per other criterion matched, the keyword counts as a matched criterion
+        assertEquals(List.of(KEYWORD_AND_SKILL, CITY_AND_SKILL, KEYWORD_ONLY),
+                results.stream().map(ResumeSummary::getId).toList());
+        assertEquals(List.of(3.0f, 2.0f, 1.5f), results.stream().map(ResumeSummary::getScore).toList());
+        assertEquals(List.of(2, 2, 1), results.stream().map(ResumeSummary::getMatchedCriteria).toList());
+        assertEquals(List.of("skills"), results.get(0).getMatchedFields());
+        assertNull(results.get(1).getMatchedFields());
+        assertEquals(List.of("text"), results.get(2).getMatchedFields());
+
+        verify(resumeRepository, never()).findSummaryPage(any(), anyList(), any(), anyInt(), any());
+        verify(resumeRepository, never()).findSummaryPage(any(), any(), anyInt(), any());
+        verify(searchIndex, never()).searchKeyword(anyString(), anyInt());
+    }
+
+    @Test
+    void otherMatchesAreFoundWithoutKeywordHits() throws IOException {
+        when(searchIndex.searchRanked(eq("java"), anyInt(), anyFloat())).thenReturn(List.of());
+
+        ExtendedModelMap model = new ExtendedModelMap();
+        controller.searchResumes("java", null, null, null, model);
+
+        verify(resumeRepository).findSummaries(any(Criteria.class), any(Criteria.class), anyInt(), anyList());
+    }
+
+    private static ResumeSummary summary(String id, int matchedCriteria) {
+        ResumeSummary summary = new ResumeSummary();
+        summary.setId(id);
+        summary.setMatchedCriteria(matchedCriteria);
+        return summary;
+    }
+}
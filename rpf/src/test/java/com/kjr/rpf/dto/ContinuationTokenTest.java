@@ -0,0 +1,91 @@
+package com.kjr.rpf.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tokens survive the round trip through their URL-safe encoding, and anything else is rejected
+ */
+class ContinuationTokenTest {
+
+    private static final String ID = "65f0c0ffee0000000000abcd";
+
+    @Test
+    void chronologicalTokenRoundTrips() {
+        ResumeSummary last = new ResumeSummary();
+        last.setId(ID);
+        last.setUploadedAt(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000));
+
+        String encoded = ContinuationToken.of(last).encode();
+        ContinuationToken decoded = ContinuationToken.decode(encoded);
+
+        assertTrue(raw(encoded).startsWith("k1|"));
+        assertFalse(decoded.isRanked());
+        assertEquals(last.getUploadedAt(), decoded.uploadedAt());
+        assertEquals(ID, decoded.id());
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+    }
+
+    @Test
+    void missingUploadDateRoundTrips() {
+        ResumeSummary last = new ResumeSummary();
+        last.setId(ID);
+
+        ContinuationToken decoded = ContinuationToken.decode(ContinuationToken.of(last).encode());
+
+        assertFalse(decoded.isRanked());
+        assertNull(decoded.uploadedAt());
+        assertEquals(ID, decoded.id());
+    }
+
+    @Test
+    void rankedTokenRoundTrips() {
+        ResumeSummary last = new ResumeSummary();
+        last.setId(ID);
+        last.setUploadedAt(LocalDateTime.now());
+        last.setScore(3.1415927f);
+
+        String encoded = ContinuationToken.ranked(last).encode();
+        ContinuationToken decoded = ContinuationToken.decode(encoded);
+
+        assertTrue(raw(encoded).startsWith("r1|"));
+        assertTrue(decoded.isRanked());
+        assertEquals(3.1415927f, decoded.score());
+        assertNull(decoded.uploadedAt());
+        assertEquals(ID, decoded.id());
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        List<String> tampered = List.of(
+                "not a token!",
+                encode("k2|2024-03-01T12:30|" + ID),
+                encode("k1|2024-03-01T12:30|"),
+                encode("k1|2024-03-01T12:30"),
+                encode("k1|2024-03-01T12:30|" + ID + "|extra"),
+                encode("k1|yesterday|" + ID),
+                encode("r1|high|" + ID),
+                encode(""));
+        for (String token : tampered) {
+            assertThrows(IllegalArgumentException.class, () -> ContinuationToken.decode(token), token);
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String raw(String token) {
+        return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    }
+}
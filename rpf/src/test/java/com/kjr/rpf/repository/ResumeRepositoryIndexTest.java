@@ -0,0 +1,346 @@
+package com.kjr.rpf.repository;
+
+import com.kjr.rpf.config.SearchQueryConfig;
+import com.kjr.rpf.dto.ResumeSummary;
+import com.kjr.rpf.model.Education;
+import com.kjr.rpf.model.Experience;
+import com.kjr.rpf.model.Resume;
+import com.kjr.rpf.model.Skills;
+import com.kjr.rpf.service.search.SearchPatterns;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs every repository query against a MongoDB with the declared indexes and explains the commands it sent:
+ * each has to be answered by an index scan whose bounds only cover the keys of the matching documents.
+ * Every field of the filler resumes sorts before or after the searched values, so a scan through
+ * a whole index, or a range open at one end, examines many more keys than documents are returned.
+ * Needs a MongoDB at {@code rpf.test.mongodb-uri} (default localhost) and is skipped if there is none.
+ */
+class ResumeRepositoryIndexTest {
+
+    private static final String DATABASE = "rpf_index_test";
+    private static final int FILLERS = 20;
+    // Keys examined beyond those of the returned documents: the key ending a range, seeks between $in values
+    private static final int EXTRA_KEYS = 3;
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count");
+    // Set by the driver, not part of what is explained
+    private static final Set<String> SESSION_FIELDS = Set.of("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber");
+
+    private static final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static ResumeRepository repository;
+
+    @BeforeAll
+    static void connect() {
+        CommandListener listener = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if (QUERY_COMMANDS.contains(event.getCommandName()) && DATABASE.equals(event.getDatabaseName())) {
+                    commands.add(event.getCommand().clone());
+                }
+            }
+        };
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(
+                        System.getProperty("rpf.test.mongodb-uri", "mongodb://localhost:27017")))
+                .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(2, TimeUnit.SECONDS))
+                .addCommandListener(listener)
+                .build());
+        try {
+            client.getDatabase(DATABASE).runCommand(new Document("ping", 1));
+        } catch (Exception e) {
+            client.close();
+            assumeTrue(false, "No MongoDB available: " + e.getMessage());
+        }
+
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.dropCollection(Resume.class);
+        mongoTemplate.insert(resume());
+        for (int i = 0; i < FILLERS; i++) {
+            mongoTemplate.insert(filler(i));
+        }
+        ResumeIndexInitializer indexInitializer = new ResumeIndexInitializer(mongoTemplate);
+        indexInitializer.createUniqueIndexes();
+        indexInitializer.createIndexes();
+
+        repository = new MongoRepositoryFactory(mongoTemplate).getRepository(ResumeRepository.class,
+                RepositoryFragments.just(new ResumeRepositoryCustomImpl(mongoTemplate, new SearchQueryConfig())));
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (mongoTemplate != null) {
+            mongoTemplate.getDb().drop();
+            client.close();
+        }
+    }
+
+    @Test
+    void declaresEveryIndex() {
+        List<String> names = mongoTemplate.indexOps(Resume.class).getIndexInfo().stream()
+                .map(IndexInfo::getName).toList();
+        assertTrue(names.contains(ResumeIndexInitializer.name(ResumeIndexInitializer.CONTENT_HASH)));
+        ResumeIndexInitializer.SEARCH_INDEXES.forEach(index ->
+                assertTrue(names.contains(ResumeIndexInitializer.name(index)), ResumeIndexInitializer.name(index)));
+    }
+
+    @Test
+    void emailUsesIndexIgnoringCase() {
+        assertEquals(1, assertIndexed(() -> repository.findByEmail("JANE.DOE@Example.com")).size());
+    }
+
+    @Test
+    void namesUseIndexIgnoringCase() {
+        assertEquals(1, assertIndexed(() -> repository.findByFirstNameIgnoreCase("jane")).size());
+        assertEquals(1, assertIndexed(() -> repository.findByLastNameIgnoreCase("DOE")).size());
+        assertEquals(1, assertIndexed(() -> repository.findByFirstNameAndLastName("JANE", "doe")).size());
+        assertEquals(1, assertIndexed(() -> repository.findByFirstNameIgnoreCaseOrLastNameIgnoreCase("x", "Doe")).size());
+    }
+
+    @Test
+    void locationUsesIndexIgnoringCase() {
+        assertEquals(1, assertIndexed(() -> repository.findByCityIgnoreCase("austin")).size());
+        assertEquals(1, assertIndexed(() -> repository.findByStateIgnoreCase("tx")).size());
+    }
+
+    @Test
+    void uploadDateRangeUsesIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(1, assertIndexed(() -> repository.findByUploadedAtBetween(now.minusDays(2), now)).size());
+    }
+
+    @Test
+    void skillsUseMultikeyIndexIgnoringCase() {
+        assertEquals(1, assertIndexed(() -> repository.findByProgrammingLanguagesIn(List.of("java"))).size());
+        assertEquals(1, assertIndexed(() -> repository.findByFrameworksIn(List.of("spring boot"))).size());
+        assertEquals(1, assertIndexed(() -> repository.findByDatabasesIn(List.of("MONGODB"))).size());
+        assertEquals(1, assertIndexed(() -> repository.findByToolsIn(List.of("git"))).size());
+        assertEquals(1, assertIndexed(() -> repository.findByCloudTechnologiesIn(List.of("aws"))).size());
+        assertEquals(1, assertIndexed(() -> repository.findBySkillIdsIn(List.of("java", "kotlin"))).size());
+    }
+
+    @Test
+    void findersReadOnlySummaryFields() {
+        List<Supplier<List<ResumeSummary>>> finders = List.of(
+                () -> repository.findByEmail("jane.doe@example.com"),
+                () -> repository.findByFirstNameAndLastName("Jane", "Doe"),
+                () -> repository.findByCityIgnoreCase("Austin"),
+                () -> repository.findByUploadedAtBetween(LocalDateTime.now().minusDays(2), LocalDateTime.now()),
+                () -> repository.findByDatabasesIn(List.of("MongoDB")),
+                () -> repository.findByToolsIn(List.of("Git")),
+                () -> repository.findByCloudTechnologiesIn(List.of("AWS")),
+                () -> repository.findBySkillIdsIn(List.of("java")));
+        for (Supplier<List<ResumeSummary>> finder : finders) {
+            commands.clear();
+            assertEquals(1, finder.get().size());
+            for (BsonDocument command : commands) {
+                BsonDocument projection = command.getDocument("projection", new BsonDocument());
+                assertFalse(projection.isEmpty(), () -> "Whole documents read by " + command.toJson());
+                assertFalse(projection.containsKey("htmlContentGzip"), () -> "HTML read by " + command.toJson());
+            }
+        }
+    }
+
+    @Test
+    void blobReferenceCountUsesIndex() {
+        assertEquals(1L, assertIndexed(() -> repository.countByOriginalFileBlobId("blob-1")));
+    }
+
+    @Test
+    void searchCriteriaUseIndexes() {
+        assertEquals(1, assertIndexed(() -> repository.findSummaries(
+                Criteria.where("contactTokens").is("email:jane.doe@example.com"), 10)).size());
+    }
+
+    @Test
+    void prefixSearchesUseIndexRangesIgnoringCase() {
+        SearchPatterns patterns = new SearchPatterns(new SearchQueryConfig());
+        assertEquals(1, assertIndexed(() -> repository.findSummaries(
+                patterns.startsWith("experience", "companyName", "acme"), 10)).size());
+        assertEquals(1, assertIndexed(() -> repository.findSummaries(
+                patterns.startsWith("experience", "jobTitle", "SENIOR eng"), 10)).size());
+        assertEquals(1, assertIndexed(() -> repository.findSummaries(
+                patterns.startsWith("education", "degree", "bachelor"), 10)).size());
+        assertEquals(1, assertIndexed(() -> repository.findSummaries(
+                patterns.startsWith("education", "institution", "University of T"), 10)).size());
+        assertEquals(1, assertIndexed(() -> repository.findSummaries(
+                patterns.startsWith("education", "major", "computer"), 10)).size());
+        assertEquals(0, assertIndexed(() -> repository.findSummaries(
+                patterns.startsWith("education", "major", "computers"), 10)).size());
+    }
+
+    /**
+     * Run the call, then explain every query command it sent
+     */
+    private static <T> T assertIndexed(Supplier<T> call) {
+        commands.clear();
+        T result = call.get();
+        assertFalse(commands.isEmpty(), "No query sent");
+        for (BsonDocument command : commands) {
+            BsonDocument explained = command.clone();
+            SESSION_FIELDS.forEach(explained::remove);
+            Document explain = mongoTemplate.getDb().runCommand(new BsonDocument("explain", explained)
+                    .append("verbosity", new BsonString("executionStats")));
+
+            List<String> stages = new ArrayList<>();
+            collectStages(explain, stages);
+            assertFalse(stages.contains("COLLSCAN"), () -> "Collection scan for " + command.toJson() + ": " + stages);
+            assertTrue(stages.contains("IXSCAN") || stages.contains("COUNT_SCAN"),
+                    () -> "No index scan for " + command.toJson() + ": " + stages);
+
+            Map<?, ?> stats = executionStats(explain);
+            assertNotNull(stats, () -> "No execution stats for " + command.toJson());
+            int keysExamined = ((Number) stats.get("totalKeysExamined")).intValue();
+            int returned = ((Number) stats.get("nReturned")).intValue();
+            assertTrue(keysExamined <= returned + EXTRA_KEYS, () -> "Index bounds of " + command.toJson()
+                    + " are not tight: " + keysExamined + " keys examined for " + returned + " documents");
+        }
+        return result;
+    }
+
+    /**
+     * Stages of the chosen plans, wherever the server version puts them in the explain output
+     */
+    private static void collectStages(Object value, List<String> stages) {
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((key, child) -> {
+                if ("stage".equals(key)) {
+                    stages.add(String.valueOf(child));
+                } else if (!"rejectedPlans".equals(key)) {
+                    collectStages(child, stages);
+                }
+            });
+        } else if (value instanceof List<?> list) {
+            list.forEach(child -> collectStages(child, stages));
+        }
+    }
+
+    /**
+     * Execution statistics of the winning plan, at the top level for a find and inside the cursor stage
+     * for most aggregations
+     */
+    private static Map<?, ?> executionStats(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            if (map.containsKey("totalKeysExamined")) {
+                return map;
+            }
+            for (Object child : map.values()) {
+                Map<?, ?> found = executionStats(child);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (value instanceof List<?> list) {
+            for (Object child : list) {
+                Map<?, ?> found = executionStats(child);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Resume resume() {
+        Resume resume = new Resume();
+        resume.setFirstName("Jane");
+        resume.setLastName("Doe");
+        resume.setEmail("jane.doe@example.com");
+        resume.setContactTokens(List.of("email:jane.doe@example.com", "tel:+15551234567"));
+        resume.setCity("Austin");
+        resume.setState("TX");
+        resume.setUploadedAt(LocalDateTime.now().minusDays(1));
+        resume.setOriginalFileBlobId("blob-1");
+
+        Skills skills = new Skills();
+        skills.setProgrammingLanguages(List.of("Java", "Kotlin"));
+        skills.setFrameworks(List.of("Spring Boot"));
+        skills.setDatabases(List.of("MongoDB"));
+        skills.setTools(List.of("Git"));
+        skills.setCloudTechnologies(List.of("AWS"));
+        resume.setSkills(skills);
+        resume.setSkillIds(List.of("java", "kotlin", "spring boot", "mongodb", "git", "aws"));
+
+        Experience experience = new Experience();
+        experience.setCompanyName("Acme Corp");
+        experience.setJobTitle("Senior Engineer");
+        resume.setExperience(List.of(experience));
+
+        Education education = new Education();
+        education.setDegree("Bachelor of Science");
+        education.setInstitution("University of Texas");
+        education.setMajor("Computer Science");
+        resume.setEducation(List.of(education));
+        return resume;
+    }
+
+    /**
+     * A resume whose every value sorts before ("A ...") or after ("Z ...") those of {@link #resume()}
+     */
+    private static Resume filler(int i) {
+        String value = (i % 2 == 0 ? "A" : "Z") + " filler " + i;
+        Resume resume = new Resume();
+        resume.setFirstName(value);
+        resume.setLastName(value);
+        resume.setEmail(value + "@example.com");
+        resume.setContactTokens(List.of("email:" + value));
+        resume.setCity(value);
+        resume.setState(value);
+        resume.setUploadedAt(LocalDateTime.now().plusDays(i % 2 == 0 ? -10 - i : 10 + i));
+        resume.setOriginalFileBlobId(value);
+        resume.setContentHash(value);
+
+        Skills skills = new Skills();
+        skills.setProgrammingLanguages(List.of(value));
+        skills.setFrameworks(List.of(value));
+        skills.setDatabases(List.of(value));
+        skills.setTools(List.of(value));
+        skills.setCloudTechnologies(List.of(value));
+        resume.setSkills(skills);
+        resume.setSkillIds(List.of(value));
+
+        Experience experience = new Experience();
+        experience.setCompanyName(value);
+        experience.setJobTitle(value);
+        resume.setExperience(List.of(experience));
+
+        Education education = new Education();
+        education.setDegree(value);
+        education.setInstitution(value);
+        education.setMajor(value);
+        resume.setEducation(List.of(education));
+        return resume;
+    }
+}
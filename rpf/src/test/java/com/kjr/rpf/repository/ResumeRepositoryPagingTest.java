@@ -0,0 +1,198 @@
+package com.kjr.rpf.repository;
+
+import com.kjr.rpf.config.SearchQueryConfig;
+import com.kjr.rpf.dto.ContinuationToken;
+import com.kjr.rpf.dto.ResumePage;
+import com.kjr.rpf.dto.ResumeSummary;
+import com.kjr.rpf.model.Resume;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Walks keyset pages through resumes sharing an upload date and resumes without one:
+ * every resume is returned exactly once, in upload date then id order, whatever the page size.
+ * Needs a MongoDB at {@code rpf.test.mongodb-uri} (default localhost) and is skipped if there is none.
+ */
+class ResumeRepositoryPagingTest {
+
+    private static final String DATABASE = "rpf_paging_test";
+    private static final LocalDateTime EARLIER = LocalDateTime.of(2024, 3, 1, 9, 0);
+    private static final LocalDateTime LATER = LocalDateTime.of(2024, 3, 2, 9, 0);
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static ResumeRepositoryCustomImpl repository;
+
+    // Ascending order: no upload date first, then by date, ties broken by id
+    private static final List<String> ascending = new ArrayList<>();
+    private static final List<String> ascendingInAustin = new ArrayList<>();
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(
+                        System.getProperty("rpf.test.mongodb-uri", "mongodb://localhost:27017")))
+                .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(2, TimeUnit.SECONDS))
+                .build());
+        try {
+            client.getDatabase(DATABASE).runCommand(new Document("ping", 1));
+        } catch (Exception e) {
+            client.close();
+            assumeTrue(false, "No MongoDB available: " + e.getMessage());
+        }
+
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.dropCollection(Resume.class);
+        // Dates out of order, so the pages cannot follow insertion order by accident; ids increase in creation order
+        LocalDateTime[] uploadedAt = {LATER, EARLIER, null, EARLIER, LATER, null, EARLIER};
+        List<Resume> resumes = new ArrayList<>();
+        for (int i = 0; i < uploadedAt.length; i++) {
+            Resume resume = new Resume();
+            resume.setId(new ObjectId().toHexString());
+            resume.setUploadedAt(uploadedAt[i]);
+            resume.setCity(i % 2 == 0 ? "Austin" : "Boston");
+            resumes.add(resume);
+        }
+        mongoTemplate.insertAll(resumes);
+        for (LocalDateTime date : new LocalDateTime[]{null, EARLIER, LATER}) {
+            for (Resume resume : resumes) {
+                if (Objects.equals(date, resume.getUploadedAt())) {
+                    ascending.add(resume.getId());
+                    if (resume.getCity().equals("Austin")) {
+                        ascendingInAustin.add(resume.getId());
+                    }
+                }
+            }
+        }
+        repository = new ResumeRepositoryCustomImpl(mongoTemplate, new SearchQueryConfig());
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (mongoTemplate != null) {
+            mongoTemplate.getDb().drop();
+            client.close();
+        }
+    }
+
+    @Test
+    void pagesAscendingCoverEveryResumeOnce() {
+        for (int pageSize = 1; pageSize <= ascending.size() + 1; pageSize++) {
+            assertEquals(ascending, walk(null, pageSize, Sort.Direction.ASC), "page size " + pageSize);
+        }
+    }
+
+    @Test
+    void pagesDescendingCoverEveryResumeOnce() {
+        for (int pageSize = 1; pageSize <= ascending.size() + 1; pageSize++) {
+            assertEquals(reversed(ascending), walk(null, pageSize, Sort.Direction.DESC), "page size " + pageSize);
+        }
+    }
+
+    @Test
+    void filteredPagesKeepTheirPosition() {
+        Criteria inAustin = Criteria.where("city").is("austin");
+        assertEquals(ascendingInAustin, walk(inAustin, 1, Sort.Direction.ASC));
+        assertEquals(reversed(ascendingInAustin), walk(inAustin, 2, Sort.Direction.DESC));
+    }
+
+    @Test
+    void countsMatchedClausesWithThePage() {
+        List<Criteria> clauses = List.of(Criteria.where("city").is("AUSTIN"), Criteria.where("uploadedAt").is(EARLIER));
+        Criteria any = new Criteria().orOperator(clauses);
+        List<String> expected = repository.findSummaryPage(any, null, ascending.size(), Sort.Direction.ASC).getItems()
+                .stream().map(ResumeSummary::getId).toList();
+
+        List<ResumeSummary> counted = new ArrayList<>();
+        ContinuationToken after = null;
+        do {
+            ResumePage page = repository.findSummaryPage(any, clauses, after, 2, Sort.Direction.ASC);
+            counted.addAll(page.getItems());
+            after = page.isHasMore() ? ContinuationToken.decode(page.getNextPageToken()) : null;
+        } while (after != null && counted.size() <= ascending.size());
+
+        assertEquals(expected, counted.stream().map(ResumeSummary::getId).toList());
+        for (ResumeSummary summary : counted) {
+            int matched = ("Austin".equals(summary.getCity()) ? 1 : 0) + (EARLIER.equals(summary.getUploadedAt()) ? 1 : 0);
+            assertEquals(matched, summary.getMatchedCriteria(), summary.getId());
+            assertTrue(matched > 0);
+        }
+    }
+
+    @Test
+    void lastPageHasNoToken() {
+        ResumePage exact = repository.findSummaryPage(null, null, ascending.size(), Sort.Direction.DESC);
+        assertEquals(ascending.size(), exact.getItems().size());
+        assertFalse(exact.isHasMore());
+        assertNull(exact.getNextPageToken());
+
+        ResumePage oneShort = repository.findSummaryPage(null, null, ascending.size() - 1, Sort.Direction.DESC);
+        assertTrue(oneShort.isHasMore());
+        ResumePage rest = repository.findSummaryPage(null, ContinuationToken.decode(oneShort.getNextPageToken()),
+                ascending.size() - 1, Sort.Direction.DESC);
+        assertEquals(List.of(ascending.get(0)), ids(rest));
+        assertFalse(rest.isHasMore());
+        assertNull(rest.getNextPageToken());
+    }
+
+    @Test
+    void rejectsRankedOrForgedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findSummaryPage(null,
+                new ContinuationToken(null, ascending.get(0), 1.5f), 2, Sort.Direction.DESC));
+        assertThrows(IllegalArgumentException.class, () -> repository.findSummaryPage(null,
+                new ContinuationToken(EARLIER, "not-an-object-id"), 2, Sort.Direction.DESC));
+    }
+
+    /**
+     * Follow the continuation tokens to the last page, collecting the ids in page order
+     */
+    private static List<String> walk(Criteria filter, int pageSize, Sort.Direction direction) {
+        List<String> ids = new ArrayList<>();
+        ContinuationToken after = null;
+        for (int pages = 0; pages <= ascending.size(); pages++) {
+            ResumePage page = repository.findSummaryPage(filter, after, pageSize, direction);
+            ids.addAll(ids(page));
+            assertEquals(page.isHasMore(), page.getNextPageToken() != null);
+            if (!page.isHasMore()) {
+                return ids;
+            }
+            assertEquals(pageSize, page.getItems().size());
+            after = ContinuationToken.decode(page.getNextPageToken());
+        }
+        throw new AssertionError("Paging did not end: " + ids);
+    }
+
+    private static List<String> reversed(List<String> ids) {
+        List<String> reversed = new ArrayList<>(ids);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    private static List<String> ids(ResumePage page) {
+        return page.getItems().stream().map(ResumeSummary::getId).toList();
+    }
+}
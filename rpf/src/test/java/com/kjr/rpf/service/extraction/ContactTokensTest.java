@@ -0,0 +1,29 @@
+package com.kjr.rpf.service.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ContactTokensTest {
+
+    private final ContactTokens tokens = new ContactTokens("1");
+
+    @Test
+    void normalizesDifferentlyFormattedPhoneNumbers() {
+        assertEquals("tel:+15551234567", tokens.phone("+1 (555) 123-4567"));
+        assertEquals("tel:+15551234567", tokens.phone("5551234567"));
+        assertEquals("tel:+15551234567", tokens.phone("1-555-123-4567"));
+        assertEquals("tel:+15551234567", tokens.phone("(555) 123-4567"));
+        assertEquals("tel:+442079460958", tokens.phone("+44 20 7946 0958"));
+        assertEquals("tel:+442079460958", tokens.phone("0044 20 7946 0958"));
+        assertNull(tokens.phone("12345"));
+        assertNull(tokens.phone("1234567890123456789"));
+    }
+
+    @Test
+    void lowerCasesEmails() {
+        assertEquals("email:jane.doe@example.com", tokens.email(" Jane.Doe@Example.COM "));
+        assertNull(tokens.email("jane.doe"));
+    }
+}
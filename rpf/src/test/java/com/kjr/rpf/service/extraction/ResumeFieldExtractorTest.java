@@ -0,0 +1,114 @@
+package com.kjr.rpf.service.extraction;
+
+import com.kjr.rpf.model.Education;
+import com.kjr.rpf.model.Experience;
+import com.kjr.rpf.model.Resume;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the fields extracted from the resumes under {@code pii-corpus/} and from typical layouts
+ */
+class ResumeFieldExtractorTest {
+
+    private final ResumeFieldExtractor extractor;
+
+    ResumeFieldExtractorTest() throws IOException {
+        extractor = new ResumeFieldExtractor(new SkillsDictionary(new ClassPathResource("extraction/skills.txt")),
+                new ContactTokens("1"));
+    }
+
+    @Test
+    void extractsSoftwareEngineerResume() throws IOException {
+        String text = new ClassPathResource("pii-corpus/software-engineer.txt").getContentAsString(StandardCharsets.UTF_8);
+        Resume resume = new Resume();
+        extractor.extract(text, resume);
+
+        assertEquals("Jane", resume.getFirstName());
+        assertEquals("Doe", resume.getLastName());
+        assertEquals("jane.doe@example.com", resume.getEmail());
+        assertEquals("+1 (415) 555-0132", resume.getPhone());
+        assertEquals("San Francisco", resume.getCity());
+        assertEquals("CA", resume.getState());
+        assertTrue(resume.getProfessionalSummary().startsWith("Backend engineer with 9+ years"));
+        assertEquals(List.of("Java", "Go", "Python"), resume.getSkills().getProgrammingLanguages());
+        assertEquals(List.of("Kubernetes", "Jira"), resume.getSkills().getTools());
+        assertEquals(ResumeFieldExtractor.VERSION, resume.getExtractionVersion());
+        // The ticket id INC-20170412-0042 is not a phone number
+        assertEquals(List.of("email:jane.doe@example.com", "email:jane_doe+jobs@mail.example.co.uk",
+                "email:ops-team@acme.io", "email:john.smith@initech.com", "tel:+14155550132", "tel:+14155550199",
+                "tel:+18005550100", "tel:+15125550175"), resume.getContactTokens());
+
+        List<Experience> experience = resume.getExperience();
+        assertEquals(2, experience.size());
+        assertEquals("Acme Corp", experience.get(0).getCompanyName());
+        assertEquals("Staff Engineer", experience.get(0).getJobTitle());
+        assertTrue(experience.get(0).isCurrentPosition());
+        assertEquals(3, experience.get(0).getResponsibilitiesAndAchievements().size());
+        assertEquals("Initech", experience.get(1).getCompanyName());
+        assertEquals("Software Engineer II", experience.get(1).getJobTitle());
+        assertEquals(LocalDate.of(2015, 1, 1), experience.get(1).getStartDate());
+        assertEquals(LocalDate.of(2019, 12, 1), experience.get(1).getEndDate());
+
+        Education education = resume.getEducation().get(0);
+        assertEquals("B.S.", education.getDegree());
+        assertEquals("Computer Science", education.getMajor());
+        assertEquals("University of Texas", education.getInstitution());
+        assertEquals(Double.valueOf(3.8), education.getGpa());
+        assertEquals(2015, education.getEndDate().getYear());
+    }
+
+    @Test
+    void extractsTitleAtCompanyPositions() {
+        String text = """
+                John Smith
+                Work Experience
+                Senior Developer at Globex | Jan 2020 - Present
+                • Built the order service with Spring Boot and PostgreSQL
+                Developer at Initech
+                03/2016 – 12/2019
+                • Maintained k8s clusters on AWS
+                """;
+        Resume resume = new Resume();
+        extractor.extract(text, resume);
+
+        List<Experience> experience = resume.getExperience();
+        assertEquals(2, experience.size());
+        assertEquals("Senior Developer", experience.get(0).getJobTitle());
+        assertEquals("Globex", experience.get(0).getCompanyName());
+        assertEquals(LocalDate.of(2020, 1, 1), experience.get(0).getStartDate());
+        assertEquals(List.of("Built the order service with Spring Boot and PostgreSQL"),
+                experience.get(0).getResponsibilitiesAndAchievements());
+        assertEquals("Developer", experience.get(1).getJobTitle());
+        assertEquals("Initech", experience.get(1).getCompanyName());
+        assertEquals(LocalDate.of(2016, 3, 1), experience.get(1).getStartDate());
+        assertEquals(List.of("Spring Boot"), resume.getSkills().getFrameworks());
+        assertEquals(List.of("PostgreSQL"), resume.getSkills().getDatabases());
+        assertEquals(List.of("Kubernetes"), resume.getSkills().getTools());
+        assertEquals(List.of("AWS"), resume.getSkills().getCloudTechnologies());
+    }
+
+    @Test
+    void leavesMissingFieldsEmpty() {
+        Resume resume = new Resume();
+        resume.setCity("Stale");
+        extractor.extract("Worked 2015-2019 on things\n", resume);
+
+        assertNull(resume.getFirstName());
+        assertNull(resume.getPhone());
+        assertNull(resume.getContactTokens());
+        assertNull(resume.getCity());
+        assertNull(resume.getSkills());
+        assertNull(resume.getExperience());
+        assertNull(resume.getEducation());
+    }
+}
@@ -0,0 +1,64 @@
+package com.kjr.rpf.service.extraction;
+
+import com.kjr.rpf.model.Skills;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the automaton against the word boundaries, aliases and phrases of the bundled dictionary
+ */
+class SkillsDictionaryTest {
+
+    private final SkillsDictionary dictionary;
+
+    SkillsDictionaryTest() throws IOException {
+        dictionary = new SkillsDictionary(new ClassPathResource("extraction/skills.txt"));
+    }
+
+    @Test
+    void matchesSkillNamesWithPunctuation() {
+        Skills skills = dictionary.match("Java/Spring/Hibernate, C++, C#, .NET Core and ASP.NET; Node.js, Vue.js, Objective-C, PL/SQL");
+
+        assertEquals(List.of("Java", "C++", "C#", "Objective-C", "PL/SQL"), skills.getProgrammingLanguages());
+        assertEquals(List.of("Spring", "Hibernate", ".NET", "Node.js", "Vue.js"), skills.getFrameworks());
+    }
+
+    @Test
+    void prefersLongestAliasAndResolvesToCanonicalName() {
+        Skills skills = dictionary.match("Ruby on Rails, Spring\n  Boot, k8s, JS and Python.");
+
+        assertEquals(List.of("JavaScript", "Python"), skills.getProgrammingLanguages());
+        assertEquals(List.of("Ruby on Rails", "Spring Boot"), skills.getFrameworks());
+        assertEquals(List.of("Kubernetes"), skills.getTools());
+        assertEquals(List.of("javascript", "python", "ruby on rails", "spring boot", "kubernetes"), SkillsDictionary.ids(skills));
+    }
+
+    @Test
+    void ignoresShortAliasesInsideWordsOrInOtherCase() {
+        assertNull(dictionary.match("go-to person for C-level reporting, js in lower case"));
+        assertEquals(List.of("Go"), dictionary.match("Go.").getProgrammingLanguages());
+    }
+
+    @Test
+    void ignoresSingleLettersInAbbreviations() {
+        assertNull(dictionary.match("R&D lead reporting to the C-suite, owns P&L"));
+        assertNull(dictionary.match("C- and D-level stakeholders, AT&T"));
+        assertEquals(List.of("C", "R"), dictionary.match("Languages: C, R.").getProgrammingLanguages());
+        assertEquals(List.of("R", "Python"), dictionary.match("R & Python").getProgrammingLanguages());
+    }
+
+    @Test
+    void normalizesQueriesToIds() {
+        assertEquals(List.of("kubernetes", "javascript", "spring boot", "foo bar", "postgresql"),
+                dictionary.queryIds("k8s, js ,Spring boot; foo bar, postgres"));
+        assertEquals("Kubernetes", dictionary.canonicalName("K8S"));
+        assertEquals("Spring Boot", dictionary.canonicalName("spring  BOOT"));
+        assertEquals("Foo", dictionary.canonicalName("Foo "));
+    }
+}
@@ -0,0 +1,98 @@
+package com.kjr.rpf.service.masking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Masking throughput of the former regular expressions against the single-pass {@link PiiScanner}.
+ * Every operation masks one MiB of (ASCII) resume text, so ops/s reads as MB/s.
+ * <p>
+ * Run with {@code mvn test-compile} and then the {@link #main} method, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main PiiMaskingBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PiiMaskingBenchmark {
+
+    private static final int MIB = 1 << 20;
+
+    // Fraction of the text taken from the corpus, the rest is plain prose without personal information
+    @Param({"100", "10"})
+    private int corpusPercent;
+
+    private String text;
+    private final PiiScanner scanner = new PiiScanner();
+    private final PiiScanner legacyRules = new PiiScanner(
+            EnumSet.of(PiiScanner.Rule.EMAIL, PiiScanner.Rule.PHONE));
+    private final StringBuilder buffer = new StringBuilder(MIB);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StringBuilder corpus = new StringBuilder();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:pii-corpus/*.txt")) {
+            corpus.append(resource.getContentAsString(StandardCharsets.UTF_8)).append('\n');
+        }
+        String prose = "Designed and operated services for search, billing and reporting across several teams. ";
+        StringBuilder builder = new StringBuilder(MIB);
+        long corpusLength = 0;
+        while (builder.length() < MIB) {
+            if (corpusLength * 100 < (long) corpusPercent * builder.length() || builder.isEmpty()) {
+                builder.append(corpus);
+                corpusLength += corpus.length();
+            } else {
+                builder.append(prose);
+            }
+        }
+        builder.setLength(MIB);
+        text = builder.toString();
+    }
+
+    @Benchmark
+    public String legacyRegex() {
+        return PiiScannerTest.legacyMask(text);
+    }
+
+    @Benchmark
+    public StringBuilder scannerSameRules() {
+        buffer.setLength(0);
+        legacyRules.mask(text, 0, text.length(), buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public StringBuilder scannerAllRules() {
+        buffer.setLength(0);
+        scanner.mask(text, 0, text.length(), buffer);
+        return buffer;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PiiMaskingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.kjr.rpf.service.masking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the scanner against the regular expressions it replaced, on the resumes under
+ * {@code pii-corpus/} and on random text made of the characters the patterns care about
+ */
+class PiiScannerTest {
+
+    // The masking previously done in ResumeService.maskPersonalInfo
+    static final Pattern LEGACY_EMAIL =
+            Pattern.compile("(?i)([a-zA-Z0-9._%+-]{3})[a-zA-Z0-9._%+-]*@[a-z0-9.-]+\\.[a-z]{2,}");
+    static final Pattern LEGACY_PHONE =
+            Pattern.compile("(\\+?\\(?\\d{1,3}\\)?[-. ]?)?\\d{2,3}[-. ]?\\d{2,3}[-. ]?(\\d{4})");
+
+    static String legacyMask(String text) {
+        text = LEGACY_EMAIL.matcher(text).replaceAll("$1***@mail");
+        return LEGACY_PHONE.matcher(text).replaceAll("******$2");
+    }
+
+    private final PiiScanner legacyRules = new PiiScanner(EnumSet.of(PiiScanner.Rule.EMAIL, PiiScanner.Rule.PHONE));
+    private final PiiScanner scanner = new PiiScanner();
+
+    @Test
+    void matchesLegacyMaskingOnCorpus() throws IOException {
+        Resource[] corpus = new PathMatchingResourcePatternResolver().getResources("classpath:pii-corpus/*.txt");
+        assertTrue(corpus.length > 0, "corpus is empty");
+        for (Resource resource : corpus) {
+            String text = resource.getContentAsString(StandardCharsets.UTF_8);
+            assertEquals(legacyMask(text), legacyRules.mask(text), resource.getFilename());
+        }
+    }
+
+    @Test
+    void matchesLegacyMaskingOnRandomText() {
+        String alphabet = "0123456789012345678901234567890123456789 +()-.-. @@abcxyzABC_%&;#mail.com";
+        Random random = new Random(7);
+        for (int sample = 0; sample < 50_000; sample++) {
+            char[] chars = new char[1 + random.nextInt(60)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            String text = new String(chars);
+            assertEquals(legacyMask(text), legacyRules.mask(text), () -> "input: " + text);
+        }
+    }
+
+    @Test
+    void masksRegionOnly() {
+        StringBuilder out = new StringBuilder("<pre>");
+        String html = "<pre>call 555-123-4567</pre>";
+        legacyRules.mask(html, 5, html.length() - 6, out);
+        assertEquals("<pre>call ******4567", out.toString());
+    }
+
+    @Test
+    void masksLinkedInProfiles() {
+        assertEquals("see https://www.linkedin.com/in/*** and linkedin.com/pub/***/",
+                scanner.mask("see https://www.linkedin.com/in/jane-doe-42 and linkedin.com/pub/john_smith/"));
+        assertEquals("linkedin.com/company/acme", scanner.mask("linkedin.com/company/acme"));
+    }
+
+    @Test
+    void masksStreetAddresses() {
+        assertEquals("Home: [address], Springfield", scanner.mask("Home: 742 Evergreen Terrace, Springfield"));
+        assertEquals("[address] Suite 5", scanner.mask("1600 Amphitheatre Pkwy. Suite 5"));
+        assertEquals("2019 Present", scanner.mask("2019 Present"));
+        assertEquals("5 Years Java", scanner.mask("5 Years Java"));
+    }
+}
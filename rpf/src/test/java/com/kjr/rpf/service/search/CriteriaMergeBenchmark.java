@@ -0,0 +1,132 @@
+package com.kjr.rpf.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging the results of a multi-criteria search: the former {@code distinct()} over whole
+ * Lombok {@code @Data} documents against the id-keyed {@link CriteriaMatchCounter}.
+ * <p>
+ * Run with {@code mvn test-compile} and then the {@link #main} method, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main CriteriaMergeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class CriteriaMergeBenchmark {
+
+    /**
+     * Shape of the resume document before the original file moved to the blob store,
+     * with the generated equals/hashCode covering every field
+     */
+    @Data
+    @AllArgsConstructor
+    static class LegacyResume {
+        private String id;
+        private String originalFileName;
+        private String firstName;
+        private String lastName;
+        private String htmlContent;
+        private byte[] originalFileData;
+    }
+
+    // The search form copies the query into 14 criteria
+    @Param({"14"})
+    private int criteria;
+
+    @Param({"20"})
+    private int hitsPerCriterion;
+
+    @Param({"204800"})
+    private int documentSize;
+
+    private List<List<LegacyResume>> documentsPerCriterion;
+    private List<ObjectId> candidateIds;
+    private List<List<ObjectId>> idsPerCriterion;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        int distinctDocuments = hitsPerCriterion * 2;
+        List<ObjectId> ids = new ArrayList<>();
+        List<char[]> contents = new ArrayList<>();
+        List<byte[]> files = new ArrayList<>();
+        for (int i = 0; i < distinctDocuments; i++) {
+            ids.add(new ObjectId());
+            char[] content = new char[documentSize];
+            for (int c = 0; c < content.length; c++) {
+                content[c] = (char) ('a' + random.nextInt(26));
+            }
+            contents.add(content);
+            byte[] file = new byte[documentSize / 4];
+            random.nextBytes(file);
+            files.add(file);
+        }
+        candidateIds = ids;
+
+        // Each criterion matches a random subset, so the same resume shows up in several lists.
+        // Every hit is a separate instance, as it would be when read from the database.
+        documentsPerCriterion = new ArrayList<>();
+        idsPerCriterion = new ArrayList<>();
+        for (int c = 0; c < criteria; c++) {
+            List<LegacyResume> documents = new ArrayList<>();
+            List<ObjectId> hitIds = new ArrayList<>();
+            for (int h = 0; h < hitsPerCriterion; h++) {
+                int d = random.nextInt(distinctDocuments);
+                documents.add(new LegacyResume(ids.get(d).toHexString(), "resume-" + d + ".pdf", "First", "Last",
+                        new String(contents.get(d)), Arrays.copyOf(files.get(d), files.get(d).length)));
+                hitIds.add(new ObjectId(ids.get(d).toHexString()));
+            }
+            documentsPerCriterion.add(documents);
+            idsPerCriterion.add(hitIds);
+        }
+    }
+
+    @Benchmark
+    public List<LegacyResume> distinctDocuments() {
+        return documentsPerCriterion.stream()
+                .flatMap(List::stream)
+                .distinct()
+                .toList();
+    }
+
+    @Benchmark
+    public CriteriaMatchCounter mergeById() {
+        CriteriaMatchCounter counter = new CriteriaMatchCounter(candidateIds);
+        for (List<ObjectId> hitIds : idsPerCriterion) {
+            counter.addAll(hitIds);
+        }
+        return counter;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CriteriaMergeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
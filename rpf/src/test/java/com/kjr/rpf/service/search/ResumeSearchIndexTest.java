@@ -0,0 +1,87 @@
+package com.kjr.rpf.service.search;
+
+import com.kjr.rpf.config.SearchIndexConfig;
+import com.kjr.rpf.model.Resume;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A failed rebuild leaves the previous index searchable and writable, in memory and on disk
+ */
+class ResumeSearchIndexTest {
+
+    @TempDir
+    Path path;
+
+    private SearchIndexConfig config;
+    private ResumeSearchIndex index;
+
+    @BeforeEach
+    void open() throws IOException {
+        config = new SearchIndexConfig();
+        config.setPath(path.toString());
+        index = new ResumeSearchIndex(config);
+        index.rebuild(List.of(resume("a", "java developer"), resume("b", "python developer")).iterator());
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void failedRebuildKeepsThePreviousIndex() throws IOException {
+        Iterator<Resume> failing = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Resume next() {
+                if (next == 1) {
+                    throw new NoSuchElementException("cursor lost");
+                }
+                return resume("c" + next++, "kotlin developer");
+            }
+        };
+
+        assertThrows(NoSuchElementException.class, () -> index.rebuild(failing));
+
+        assertEquals(2, index.size());
+        assertFalse(index.isOutdated());
+        assertEquals(List.of("a"), index.searchKeyword("java", 10));
+        assertEquals(List.of(), index.searchKeyword("kotlin", 10));
+
+        // The reopened writer keeps taking changes
+        index.index(resume("d", "go developer"));
+        index.indexAll(List.of(resume("e", "rust developer")));
+        assertEquals(List.of("e"), index.searchKeyword("rust", 10));
+
+        index.close();
+        index = new ResumeSearchIndex(config);
+        assertEquals(List.of("a"), index.searchKeyword("java", 10));
+        assertFalse(index.isOutdated());
+    }
+
+    private static Resume resume(String id, String text) {
+        Resume resume = new Resume();
+        resume.setId(id);
+        resume.setHtml("<html><body><pre>" + text + "</pre></body></html>");
+        return resume;
+    }
+}
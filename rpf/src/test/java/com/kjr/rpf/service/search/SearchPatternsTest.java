@@ -0,0 +1,34 @@
+package com.kjr.rpf.service.search;
+
+import com.kjr.rpf.config.SearchQueryConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchPatternsTest {
+
+    private final SearchPatterns patterns = new SearchPatterns(new SearchQueryConfig());
+
+    @Test
+    void escapedTermsMatchOnlyThemselves() {
+        for (String term : new String[]{"C++", "C#/.NET", "a.b*c", "[x]{2}", "^$|?\\", "Node.js (senior)"}) {
+            String escaped = SearchPatterns.escape(term);
+            assertTrue(Pattern.compile("^" + escaped + "$").matcher(term).matches(), term);
+        }
+        assertEquals("C\\+\\+", SearchPatterns.escape("C++"));
+    }
+
+    @Test
+    void rejectsPathologicalTerms() {
+        assertThrows(IllegalArgumentException.class, () -> patterns.check("(a+)+$"));
+        assertThrows(IllegalArgumentException.class, () -> patterns.check("(\\w*)*x"));
+        assertThrows(IllegalArgumentException.class, () -> patterns.check("(.{1,9}){1,9}"));
+        assertThrows(IllegalArgumentException.class, () -> patterns.check("x".repeat(201)));
+        assertThrows(IllegalArgumentException.class, () -> patterns.check("ja\u0000va"));
+        assertEquals("C++ (senior)", patterns.check(" C++ (senior) "));
+    }
+}
@@ -0,0 +1,99 @@
+package com.kjr.rpf.service.storage;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Byte ranges read straight from the GridFS chunks, at and across chunk boundaries.
+ * Needs a MongoDB at {@code rpf.test.mongodb-uri} (default localhost) and is skipped if there is none.
+ */
+class GridFsBlobStoreTest {
+
+    private static final String DATABASE = "rpf_gridfs_test";
+    // GridFsTemplate stores in chunks of 255 KiB, the content spans three of them
+    private static final int CHUNK_SIZE = 255 * 1024;
+    private static final byte[] CONTENT = new byte[2 * CHUNK_SIZE + 1000];
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static GridFsBlobStore blobStore;
+    private static String blobId;
+
+    @BeforeAll
+    static void connect() throws Exception {
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(
+                        System.getProperty("rpf.test.mongodb-uri", "mongodb://localhost:27017")))
+                .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(2, TimeUnit.SECONDS))
+                .build());
+        try {
+            client.getDatabase(DATABASE).runCommand(new Document("ping", 1));
+        } catch (Exception e) {
+            client.close();
+            assumeTrue(false, "No MongoDB available: " + e.getMessage());
+        }
+
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.getDb().drop();
+        blobStore = new GridFsBlobStore(new GridFsTemplate(new SimpleMongoClientDatabaseFactory(client, DATABASE),
+                mongoTemplate.getConverter()), mongoTemplate);
+        new Random(42).nextBytes(CONTENT);
+        blobId = blobStore.store(new ByteArrayInputStream(CONTENT), "resume.pdf", "application/pdf");
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (mongoTemplate != null) {
+            mongoTemplate.getDb().drop();
+            client.close();
+        }
+    }
+
+    @Test
+    void copiesRangesAtAndAcrossChunkBoundaries() throws Exception {
+        long[][] ranges = {
+                {0, CONTENT.length},
+                {0, 1},
+                {10, 100},
+                {CHUNK_SIZE - 1, 2},
+                {CHUNK_SIZE, CHUNK_SIZE},
+                {CHUNK_SIZE - 10, CHUNK_SIZE + 20},
+                {2L * CHUNK_SIZE + 999, 1},
+                {5, 0}};
+        for (long[] range : ranges) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            blobStore.copyRange(blobId, range[0], range[1], out);
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, (int) range[0], (int) (range[0] + range[1])), out.toByteArray(),
+                    range[0] + "+" + range[1]);
+        }
+    }
+
+    @Test
+    void rangePastTheEndFails() {
+        assertThrows(EOFException.class,
+                () -> blobStore.copyRange(blobId, CONTENT.length - 10, 11, new ByteArrayOutputStream()));
+        assertThrows(FileNotFoundException.class,
+                () -> blobStore.copyRange("65f0c0ffee0000000000abcd", 0, 1, new ByteArrayOutputStream()));
+    }
+}